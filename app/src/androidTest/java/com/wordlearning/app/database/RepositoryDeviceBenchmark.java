@@ -0,0 +1,164 @@
+package com.wordlearning.app.database;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-015：RepositoryBenchmark 的同一组操作（导入、每日抽词、复习更新、记录错词）在设备上跑 SQLite 和 H2。
+ * JVM 单元测试里 android.database.sqlite 只有桩实现，SQLite 只能在这里测。
+ * 默认用小数据量；完整数据量：
+ * ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.benchmark.full=true
+ */
+@RunWith(AndroidJUnit4.class)
+public class RepositoryDeviceBenchmark {
+    private static final String TAG = "Benchmark";
+    private static final String SQLITE_NAME = "repository_benchmark.sqlite";
+    private static final String H2_NAME = "repository_benchmark_h2";
+    private static final int DAILY_WORDS = 20;
+    private static final String[] TYPES = {"meaning", "spelling", "pronunciation"};
+    private static final String[] SYLLABLES = {"ab", "ex", "con", "tra", "pre", "lu", "mi", "or", "ven", "sta", "qui", "dor"};
+
+    private Context context;
+    private SQLiteRepository sqlite;
+    private DatabaseHelper h2;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        deleteDatabases();
+    }
+
+    @After
+    public void tearDown() {
+        if (sqlite != null) {
+            sqlite.close();
+        }
+        if (h2 != null) {
+            h2.close();
+        }
+        deleteDatabases();
+    }
+
+    @Test
+    public void sameWorkloadOnSQLiteAndH2() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        boolean full = Boolean.parseBoolean(arguments.getString("benchmark.full", "false"));
+        int count = full ? 100000 : 2000;
+        int days = full ? 100 : 10;
+
+        sqlite = new SQLiteRepository(context, SQLITE_NAME);
+        run("sqlite", sqlite, sqlite, count, days);
+
+        h2 = new DatabaseHelper(h2Path(), StorageProfile.BALANCED);
+        awaitOnlineMigrations(h2);
+        run("h2", h2, h2, count, days);
+    }
+
+    private void run(String backend, WordRepository words, MistakeRepository mistakes, int count, int days) {
+        List<Word> bank = words(count);
+        long start = System.nanoTime();
+        long[] ids = words.insertWords(bank);
+        long importMs = (System.nanoTime() - start) / 1000000;
+        assertEquals(count, ids.length);
+        assertEquals(count, words.countWords());
+
+        long sampleNanos = 0;
+        long reviewNanos = 0;
+        long mistakeNanos = 0;
+        long now = 1700000000000L;
+        for (int day = 0; day < days; day++) {
+            start = System.nanoTime();
+            List<Word> today = words.getRandomWords(DAILY_WORDS);
+            sampleNanos += System.nanoTime() - start;
+            assertEquals(DAILY_WORDS, today.size());
+
+            start = System.nanoTime();
+            for (Word word : today) {
+                word.setReviewCount(word.getReviewCount() + 1);
+                word.setLastReviewTime(now + day * 86400000L);
+                words.updateWord(word);
+            }
+            reviewNanos += System.nanoTime() - start;
+
+            // 每天答错其中四分之一
+            start = System.nanoTime();
+            for (int i = 0; i < today.size(); i += 4) {
+                Word word = today.get(i);
+                mistakes.recordMistake(new MistakeWord(word.getId(), word.getWord(), TYPES[day % TYPES.length]));
+            }
+            mistakeNanos += System.nanoTime() - start;
+        }
+        assertTrue(mistakes.countUnresolvedMistakes() > 0);
+
+        Log.i(TAG, String.format(Locale.ROOT, "%s, %d words: import %d ms, daily sample %.2f ms, " +
+                        "review update %.3f ms/word, record mistake %.3f ms/mistake", backend, count, importMs,
+                sampleNanos / 1e6 / days, reviewNanos / 1e6 / (days * DAILY_WORDS),
+                mistakeNanos / 1e6 / (days * DAILY_WORDS / 4)));
+    }
+
+    // 索引类迁移在数据库就绪后才在后台执行，测量查询之前等它们完成
+    private static void awaitOnlineMigrations(DatabaseHelper db) throws InterruptedException {
+        int latest = DatabaseHelper.buildMigrator().getLatestVersion();
+        long deadline = System.currentTimeMillis() + 120000;
+        while (db.getSchemaVersion() < latest) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Online migrations did not finish, schema v" + db.getSchemaVersion());
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    // 与单元测试里的 Benchmarks.words 相同的词库生成方式，两边的数字可以直接对比
+    private static List<Word> words(int count) {
+        Random random = new Random(15);
+        List<Word> words = new ArrayList<>(count);
+        long createdAt = 1600000000000L;
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                text.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            text.append(Integer.toString(i, 36));
+            Word word = new Word(text.toString());
+            word.setPronunciation("/" + text + "/");
+            word.setMeaning("释义" + i + "：表示某种动作或状态");
+            word.setExampleSentence("This is an example sentence for " + text + " number " + i + ".");
+            word.setCreatedAt(createdAt + i * 1000L);
+            word.setLearned(random.nextInt(4) == 0);
+            words.add(word);
+        }
+        return words;
+    }
+
+    private String h2Path() {
+        return context.getDatabasePath(H2_NAME).getPath();
+    }
+
+    private void deleteDatabases() {
+        context.deleteDatabase(SQLITE_NAME);
+        new File(h2Path() + ".mv.db").delete();
+        new File(h2Path() + ".trace.db").delete();
+    }
+}
@@ -13,17 +13,19 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import com.wordlearning.app.database.DatabaseHelper;
-import com.wordlearning.app.model.Word;
+import com.wordlearning.app.database.MistakeRepository;
+import com.wordlearning.app.database.Repositories;
+import com.wordlearning.app.database.WordRepository;
 import com.wordlearning.app.service.EmailService;
-import java.util.List;
+import com.wordlearning.app.service.ZhipuAIService;
 
 public class MainActivity extends AppCompatActivity {
     private static final int REQUEST_RECORD_AUDIO_PERMISSION = 1;
     private static final int REQUEST_STORAGE_PERMISSION = 2;
     private static final int REQUEST_EMAIL_PERMISSION = 3;
     
-    private DatabaseHelper dbHelper;
+    private WordRepository wordRepository;
+    private MistakeRepository mistakeRepository;
     private TextView wordCountTextView;
     private TextView mistakeCountTextView;
     
@@ -32,11 +34,17 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
         
-        dbHelper = DatabaseHelper.getInstance(this);
+        Repositories.acquire(this);
+        wordRepository = Repositories.getWordRepository(this);
+        mistakeRepository = Repositories.getMistakeRepository(this);
+        // 配置了 API Key 时提前建立到智谱接口的连接，第一次判题不必等握手
+        if (!SettingsActivity.getZhipuApiKey(this).isEmpty()) {
+            ZhipuAIService.prewarm();
+        }
         
         initViews();
         checkPermissions();
-        updateWordCount();
+        Repositories.whenReady(this, this::updateWordCount);
     }
     
     private void initViews() {
@@ -98,17 +106,21 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void updateWordCount() {
-        List<Word> words = dbHelper.getAllWords();
-        wordCountTextView.setText("单词总数: " + words.size());
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        wordCountTextView.setText("单词总数: " + wordRepository.countWords());
         
-        int mistakeCount = dbHelper.getAllMistakeWords().size();
+        long mistakeCount = mistakeRepository.countUnresolvedMistakes();
         mistakeCountTextView.setText("错词数量: " + mistakeCount);
     }
     
     @Override
     protected void onResume() {
         super.onResume();
-        updateWordCount();
+        if (Repositories.isReady(this)) {
+            updateWordCount();
+        }
     }
     
     @Override
@@ -141,8 +153,8 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
+        if (wordRepository != null) {
+            Repositories.release(this);
         }
     }
 }
\ No newline at end of file
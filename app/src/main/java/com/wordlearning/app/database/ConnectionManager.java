@@ -0,0 +1,231 @@
+package com.wordlearning.app.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * H2 连接管理：一个串行化的写连接，加上一个小型只读连接池。
+ * MVStore 下读连接读取已提交的快照，不会被写操作阻塞。
+ */
+class ConnectionManager {
+    interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private static final int STATEMENT_CACHE_SIZE = 32;
+    private static final long READER_WAIT_MS = 100;
+    // H2 会在数据没有变化时复用上一次的查询结果，但判断依据不含其他连接刚提交的事务，
+    // 连接在线程间轮换时会读到比之前更旧的值，所以关掉结果复用
+    private static final String URL_SETTINGS = ";OPTIMIZE_REUSE_RESULTS=FALSE";
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxReaders;
+    private final Connection writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final LinkedBlockingQueue<Connection> idleReaders = new LinkedBlockingQueue<>();
+    private final List<Connection> allReaders = new ArrayList<>();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    ConnectionManager(String url, String user, String password, int maxReaders) throws SQLException {
+        this.url = url + URL_SETTINGS;
+        this.user = user;
+        this.password = password;
+        this.maxReaders = Math.max(1, maxReaders);
+        this.writer = DriverManager.getConnection(this.url, user, password);
+        statementCaches.put(writer, new StatementCache(writer, STATEMENT_CACHE_SIZE));
+    }
+
+    PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        return cacheFor(connection).prepare(sql);
+    }
+
+    PreparedStatement prepareWithKeys(Connection connection, String sql) throws SQLException {
+        return cacheFor(connection).prepare(sql, true);
+    }
+
+    long getStatementCacheHits() {
+        long hits = 0;
+        for (StatementCache cache : statementCaches.values()) {
+            hits += cache.getHits();
+        }
+        return hits;
+    }
+
+    long getStatementCacheMisses() {
+        long misses = 0;
+        for (StatementCache cache : statementCaches.values()) {
+            misses += cache.getMisses();
+        }
+        return misses;
+    }
+
+    <T> T read(SqlWork<T> work) throws SQLException {
+        Connection connection = acquireReader();
+        try {
+            return work.run(connection);
+        } catch (RuntimeException e) {
+            // 读到一半连接被 close() 关掉时，H2 的 executeQuery 可能直接返回 null，统一按数据库已关闭报错
+            if (closed) {
+                throw new SQLException("Database closed during read", e);
+            }
+            throw e;
+        } finally {
+            releaseReader(connection);
+        }
+    }
+
+    <T> T write(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            return work.run(writer);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    <T> T transaction(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            boolean autoCommit = writer.getAutoCommit();
+            writer.setAutoCommit(false);
+            try {
+                T result = work.run(writer);
+                writer.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                writer.rollback();
+                throw e;
+            } finally {
+                writer.setAutoCommit(autoCommit);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void close() {
+        close(false);
+    }
+
+    // compact 为 true 时用 SHUTDOWN COMPACT 关闭，H2 会在关闭前重写整个文件回收空间
+    void close(boolean compact) {
+        writeLock.lock();
+        try {
+            closed = true;
+            for (StatementCache cache : statementCaches.values()) {
+                cache.close();
+            }
+            statementCaches.clear();
+            if (compact) {
+                try {
+                    Statement stmt = writer.createStatement();
+                    stmt.execute("SHUTDOWN COMPACT");
+                    stmt.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            synchronized (allReaders) {
+                for (Connection reader : allReaders) {
+                    closeQuietly(reader);
+                }
+                allReaders.clear();
+            }
+            idleReaders.clear();
+            closeQuietly(writer);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private Connection acquireReader() throws SQLException {
+        ensureOpen();
+        Connection connection = idleReaders.poll();
+        if (connection != null) {
+            return checkOpen(connection);
+        }
+        synchronized (allReaders) {
+            ensureOpen();
+            if (allReaders.size() < maxReaders) {
+                connection = DriverManager.getConnection(url, user, password);
+                connection.setReadOnly(true);
+                allReaders.add(connection);
+                statementCaches.put(connection, new StatementCache(connection, STATEMENT_CACHE_SIZE));
+                return connection;
+            }
+        }
+        // 关闭时没人会再归还连接，限时等待并重新检查，避免一直阻塞
+        try {
+            while (true) {
+                connection = idleReaders.poll(READER_WAIT_MS, TimeUnit.MILLISECONDS);
+                if (connection != null) {
+                    return checkOpen(connection);
+                }
+                ensureOpen();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+    }
+
+    // 归还和关闭交错时，队列里可能留下已经关闭的连接
+    private Connection checkOpen(Connection connection) throws SQLException {
+        if (closed) {
+            closeQuietly(connection);
+            throw new SQLException("Database is closed");
+        }
+        return connection;
+    }
+
+    private void releaseReader(Connection connection) {
+        if (closed) {
+            closeQuietly(connection);
+            return;
+        }
+        idleReaders.offer(connection);
+    }
+
+    private StatementCache cacheFor(Connection connection) throws SQLException {
+        StatementCache cache = statementCaches.get(connection);
+        if (cache == null) {
+            throw new SQLException("Connection is not managed by this ConnectionManager");
+        }
+        return cache;
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Database is closed");
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
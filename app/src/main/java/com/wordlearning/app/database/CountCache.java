@@ -0,0 +1,144 @@
+package com.wordlearning.app.database;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 首页计数的内存缓存。写路径增量更新，无法精确更新时置为未知，下次读取再用 COUNT 重新计算。
+ * 单词和错词各有一个代数，缓存每变一次加一。读库前和写库前都先记下代数，
+ * 写回计数或累加增量时代数已变化，说明期间有别的读写，结果无法确定，前者直接丢弃，后者把计数置为未知。
+ */
+class CountCache {
+    private static final long UNKNOWN = -1;
+
+    private long wordCount = UNKNOWN;
+    private long unresolvedMistakeCount = UNKNOWN;
+    private Map<String, Long> unresolvedByType;
+    private long wordGeneration = 0;
+    private long mistakeGeneration = 0;
+
+    synchronized long wordGeneration() {
+        return wordGeneration;
+    }
+
+    synchronized long mistakeGeneration() {
+        return mistakeGeneration;
+    }
+
+    synchronized long getWordCount() {
+        return wordCount;
+    }
+
+    synchronized void setWordCount(long count, long loadedAt) {
+        if (loadedAt == wordGeneration) {
+            wordCount = count;
+            wordGeneration++;
+        }
+    }
+
+    synchronized void addWords(long delta, long loadedAt) {
+        if (loadedAt != wordGeneration) {
+            wordCount = UNKNOWN;
+        } else if (wordCount != UNKNOWN) {
+            wordCount += delta;
+        }
+        wordGeneration++;
+    }
+
+    synchronized long getUnresolvedMistakeCount() {
+        return unresolvedMistakeCount;
+    }
+
+    synchronized void setUnresolvedMistakeCount(long count, long loadedAt) {
+        if (loadedAt == mistakeGeneration) {
+            unresolvedMistakeCount = count;
+            mistakeGeneration++;
+        }
+    }
+
+    synchronized Map<String, Long> getUnresolvedByType() {
+        return unresolvedByType == null ? null : new HashMap<>(unresolvedByType);
+    }
+
+    synchronized void setUnresolvedByType(Map<String, Long> counts, long loadedAt) {
+        if (loadedAt == mistakeGeneration) {
+            unresolvedByType = new HashMap<>(counts);
+            mistakeGeneration++;
+        }
+    }
+
+    // 每个元素代表一条新增或重新打开的错词
+    synchronized void addMistakes(Collection<String> mistakeTypes, long loadedAt) {
+        if (mistakeTypes.isEmpty()) {
+            return;
+        }
+        if (loadedAt != mistakeGeneration) {
+            invalidateMistakes();
+            return;
+        }
+        if (unresolvedMistakeCount != UNKNOWN) {
+            unresolvedMistakeCount += mistakeTypes.size();
+        }
+        if (unresolvedByType != null) {
+            for (String mistakeType : mistakeTypes) {
+                Long current = unresolvedByType.get(mistakeType);
+                unresolvedByType.put(mistakeType, current == null ? 1 : current + 1);
+            }
+        }
+        mistakeGeneration++;
+    }
+
+    // 按类型传入这次解决掉的错词条数，从计数里扣掉
+    synchronized void resolveMistakes(Map<String, Long> resolvedByType, long loadedAt) {
+        if (resolvedByType.isEmpty()) {
+            return;
+        }
+        if (loadedAt != mistakeGeneration) {
+            invalidateMistakes();
+            return;
+        }
+        for (Map.Entry<String, Long> entry : resolvedByType.entrySet()) {
+            if (unresolvedMistakeCount != UNKNOWN) {
+                unresolvedMistakeCount -= entry.getValue();
+            }
+            if (unresolvedByType != null) {
+                Long current = unresolvedByType.get(entry.getKey());
+                long left = (current == null ? 0 : current) - entry.getValue();
+                if (left > 0) {
+                    unresolvedByType.put(entry.getKey(), left);
+                } else {
+                    unresolvedByType.remove(entry.getKey());
+                }
+            }
+        }
+        mistakeGeneration++;
+    }
+
+    // 全部错词已解决；期间有别的错词写入时不能确定仍为 0
+    synchronized void resolveAllMistakes(long loadedAt) {
+        if (loadedAt != mistakeGeneration) {
+            invalidateMistakes();
+            return;
+        }
+        unresolvedMistakeCount = 0;
+        unresolvedByType = new HashMap<>();
+        mistakeGeneration++;
+    }
+
+    synchronized void invalidateMistakes() {
+        unresolvedMistakeCount = UNKNOWN;
+        unresolvedByType = null;
+        mistakeGeneration++;
+    }
+
+    synchronized void invalidateAll() {
+        wordCount = UNKNOWN;
+        wordGeneration++;
+        invalidateMistakes();
+    }
+
+    static boolean isKnown(long count) {
+        return count != UNKNOWN;
+    }
+}
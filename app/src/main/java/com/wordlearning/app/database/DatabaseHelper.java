@@ -2,30 +2,148 @@ package com.wordlearning.app.database;
 
 import android.content.Context;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 
 import com.wordlearning.app.model.MistakeWord;
 import com.wordlearning.app.model.Word;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class DatabaseHelper {
+public class DatabaseHelper implements WordRepository, MistakeRepository {
     private static final String DATABASE_NAME = "word_learning.db";
-    private static final String DATABASE_PATH = Environment.getExternalStorageDirectory().getAbsolutePath() + "/WordLearning/";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int MAX_READ_CONNECTIONS = 3;
+    public static final long REVIEW_INTERVAL = 3L * 24 * 60 * 60 * 1000;
+    private static final String MERGE_MISTAKE_SQL = "MERGE INTO mistake_words t USING (SELECT " +
+            "CAST(? AS BIGINT) AS word_id, CAST(? AS VARCHAR(255)) AS word, CAST(? AS VARCHAR(50)) AS mistake_type, " +
+            "CAST(? AS BIGINT) AS added_at, CAST(? AS INT) AS mistake_count, CAST(? AS BOOLEAN) AS is_resolved, " +
+            "CAST(? AS BIGINT) AS updated_at) s " +
+            "ON t.word_id = s.word_id AND t.mistake_type = s.mistake_type " +
+            "WHEN MATCHED THEN UPDATE SET mistake_count = t.mistake_count + s.mistake_count, " +
+            "added_at = s.added_at, is_resolved = s.is_resolved, updated_at = s.updated_at " +
+            "WHEN NOT MATCHED THEN INSERT (word_id, word, mistake_type, added_at, mistake_count, is_resolved, updated_at) " +
+            "VALUES (s.word_id, s.word, s.mistake_type, s.added_at, s.mistake_count, s.is_resolved, s.updated_at)";
+    private static final String INSERT_WORD_SQL = "INSERT INTO words (word, word_lower, pronunciation, meaning, " +
+            "example_sentence, created_at, last_review_time, review_count, is_learned, next_due_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_WORD_SQL = "UPDATE words SET pronunciation = ?, meaning = ?, example_sentence = ?, " +
+            "last_review_time = ?, review_count = ?, is_learned = ?, next_due_at = ?, updated_at = ? WHERE id = ?";
+    // 快照导入：单词按 (word_lower, created_at) 识别同一条记录，错词按单词文本找到本地的 word_id；
+    // 只有快照里的变更戳更新时才覆盖本地行，重复导入同一份快照不会改变数据
+    private static final String IMPORT_WORD_SQL = "MERGE INTO words t USING (SELECT " +
+            "CAST(? AS VARCHAR(255)) AS word, CAST(? AS VARCHAR(255)) AS word_lower, CAST(? AS CLOB) AS pronunciation, " +
+            "CAST(? AS CLOB) AS meaning, CAST(? AS CLOB) AS example_sentence, CAST(? AS BIGINT) AS created_at, " +
+            "CAST(? AS BIGINT) AS last_review_time, CAST(? AS INT) AS review_count, CAST(? AS BOOLEAN) AS is_learned, " +
+            "CAST(? AS BIGINT) AS next_due_at, CAST(? AS BIGINT) AS updated_at) s " +
+            "ON t.word_lower = s.word_lower AND t.created_at = s.created_at " +
+            "WHEN MATCHED AND t.updated_at < s.updated_at THEN UPDATE SET word = s.word, pronunciation = s.pronunciation, " +
+            "meaning = s.meaning, example_sentence = s.example_sentence, last_review_time = s.last_review_time, " +
+            "review_count = s.review_count, is_learned = s.is_learned, next_due_at = s.next_due_at, updated_at = s.updated_at " +
+            "WHEN NOT MATCHED THEN INSERT (word, word_lower, pronunciation, meaning, example_sentence, created_at, " +
+            "last_review_time, review_count, is_learned, next_due_at, updated_at) VALUES (s.word, s.word_lower, " +
+            "s.pronunciation, s.meaning, s.example_sentence, s.created_at, s.last_review_time, s.review_count, " +
+            "s.is_learned, s.next_due_at, s.updated_at)";
+    private static final String IMPORT_MISTAKE_SQL = "MERGE INTO mistake_words t USING (SELECT " +
+            "(SELECT w.id FROM words w WHERE w.word_lower = ? ORDER BY w.created_at DESC LIMIT 1) AS word_id, " +
+            "CAST(? AS VARCHAR(255)) AS word, CAST(? AS VARCHAR(50)) AS mistake_type, CAST(? AS BIGINT) AS added_at, " +
+            "CAST(? AS INT) AS mistake_count, CAST(? AS BOOLEAN) AS is_resolved, CAST(? AS BIGINT) AS updated_at) s " +
+            "ON t.word_id = s.word_id AND t.mistake_type = s.mistake_type " +
+            "WHEN MATCHED AND t.updated_at < s.updated_at THEN UPDATE SET mistake_count = s.mistake_count, " +
+            "added_at = s.added_at, is_resolved = s.is_resolved, updated_at = s.updated_at " +
+            "WHEN NOT MATCHED AND s.word_id IS NOT NULL THEN INSERT (word_id, word, mistake_type, added_at, " +
+            "mistake_count, is_resolved, updated_at) VALUES (s.word_id, s.word, s.mistake_type, s.added_at, " +
+            "s.mistake_count, s.is_resolved, s.updated_at)";
+    private static final String WORD_COLUMNS = "id, word, pronunciation, meaning, example_sentence, " +
+            "created_at, last_review_time, review_count, is_learned";
+    private static final String MISTAKE_COLUMNS = "id, word_id, word, mistake_type, added_at, mistake_count, is_resolved";
+    private static final String TAG = "DatabaseHelper";
+    private static final long IDLE_CLOSE_DELAY_MS = 30 * 1000;
+    private static final String PREFS_NAME = "AppSettings";
+    public static final String KEY_STORAGE_PROFILE = "storage_profile";
+    private static final long COMPACTION_CHECK_INTERVAL_MS = 10 * 60 * 1000;
+    private static final long MIN_COMPACT_FILE_SIZE = 1024 * 1024;
+    private static final int WORD_CACHE_SIZE = 256;
+    private static final int LOCK_TIMEOUT_MS = 15 * 1000;
+    private static final int SNAPSHOT_PAGE_SIZE = 1000;
     private static DatabaseHelper instance;
-    private Connection connection;
+    private volatile ConnectionManager connections;
     private Context context;
+    private final WordSampler wordSampler = new WordSampler();
+    private final CountCache countCache = new CountCache();
+    private final WordCache wordCache = new WordCache(WORD_CACHE_SIZE);
+    private final SearchIndex searchIndex = new SearchIndex();
+    // 数据库文件路径，不含 H2 的 .mv.db 后缀
+    private final String databaseFile;
+    private final SchemaMigrator migrator = buildMigrator();
+    private final Object lifecycleLock = new Object();
+    private final ScheduledExecutorService lifecycleExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "DatabaseLifecycle");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<ReadyCallback> readyCallbacks = new ArrayList<>();
+    private final Map<String, Long> startupTimings = new LinkedHashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final AtomicInteger closeCount = new AtomicInteger();
+    private final AtomicInteger compactionCount = new AtomicInteger();
+    private final StorageProfile storageProfile;
+    private volatile boolean compactionRequested = false;
+    private volatile long lastCompactionBytesSaved = 0;
+    private ScheduledFuture<?> compactionCheck;
+    private CountDownLatch readyLatch = new CountDownLatch(1);
+    private boolean ready = false;
+    private boolean opening = false;
+    private int leaseCount = 0;
+    private ScheduledFuture<?> pendingClose;
+    // 最近分配的变更戳，只在持有写锁时读写；-1 表示还没从库里读出
+    private long lastChangeStamp = -1;
+
+    public interface ReadyCallback {
+        void onDatabaseReady();
+    }
 
     private DatabaseHelper(Context context) {
+        this(Environment.getExternalStorageDirectory().getAbsolutePath() + "/WordLearning/" + DATABASE_NAME,
+                StorageProfile.parse(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                        .getString(KEY_STORAGE_PROFILE, StorageProfile.BALANCED.name())));
         this.context = context.getApplicationContext();
-        initializeDatabase();
+    }
+
+    // 单元测试直接指定数据库文件，不经过 Context
+    DatabaseHelper(String databaseFile, StorageProfile storageProfile) {
+        this.databaseFile = databaseFile;
+        this.storageProfile = storageProfile;
+        synchronized (lifecycleLock) {
+            startOpenIfNeeded();
+        }
     }
 
     public static synchronized DatabaseHelper getInstance(Context context) {
@@ -35,207 +153,801 @@ public class DatabaseHelper {
         return instance;
     }
 
+    public static DatabaseHelper acquire(Context context) {
+        DatabaseHelper helper = getInstance(context);
+        helper.retain();
+        return helper;
+    }
+
+    public void retain() {
+        synchronized (lifecycleLock) {
+            leaseCount++;
+            if (pendingClose != null) {
+                pendingClose.cancel(false);
+                pendingClose = null;
+            }
+            startOpenIfNeeded();
+        }
+    }
+
+    public void release() {
+        synchronized (lifecycleLock) {
+            if (leaseCount == 0) {
+                Log.w(TAG, "release() called without a matching retain()");
+                return;
+            }
+            leaseCount--;
+            if (leaseCount == 0 && pendingClose == null) {
+                pendingClose = lifecycleExecutor.schedule(this::closeIfIdle, IDLE_CLOSE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    public int getLeaseCount() {
+        synchronized (lifecycleLock) {
+            return leaseCount;
+        }
+    }
+
+    public int getOpenCount() {
+        return openCount.get();
+    }
+
+    public int getCloseCount() {
+        return closeCount.get();
+    }
+
+    private void startOpenIfNeeded() {
+        if (connections != null || opening) {
+            return;
+        }
+        opening = true;
+        ready = false;
+        readyLatch = new CountDownLatch(1);
+        lifecycleExecutor.execute(this::initializeDatabase);
+    }
+
+    private void closeIfIdle() {
+        boolean compact = compactionRequested;
+        ConnectionManager current;
+        synchronized (lifecycleLock) {
+            pendingClose = null;
+            // 正在打开说明又有人要用数据库；打开任务排在本线程后面，也不能在这里等它
+            if (leaseCount > 0 || opening) {
+                return;
+            }
+            // 检查租约和取下连接在同一段锁内完成，之后 retain() 的调用方会重新打开，
+            // 不会拿到马上要关闭的连接
+            current = detachConnections();
+        }
+        closeDetached(current, compact);
+        Log.d(TAG, compact ? "Database compacted and closed after idle period" : "Database closed after idle period");
+    }
+
     private void initializeDatabase() {
+        long start = SystemClock.elapsedRealtime();
+        ConnectionManager opened = null;
         try {
-            File dbDir = new File(DATABASE_PATH);
-            if (!dbDir.exists()) {
+            File dbDir = new File(databaseFile).getParentFile();
+            if (dbDir != null && !dbDir.exists()) {
                 dbDir.mkdirs();
             }
 
-            String url = "jdbc:h2:" + DATABASE_PATH + DATABASE_NAME;
-            connection = DriverManager.getConnection(url, "sa", "");
-            
-            createTables();
+            // 后台建索引时 H2 会锁住整张表，读操作等待而不是按默认的 1 秒超时报错
+            String url = "jdbc:h2:" + databaseFile + storageProfile.urlSettings()
+                    + ";LOCK_TIMEOUT=" + LOCK_TIMEOUT_MS;
+            long openStart = SystemClock.elapsedRealtime();
+            opened = new ConnectionManager(url, "sa", "", MAX_READ_CONNECTIONS);
+            recordStartupPhase("open", openStart);
+
+            long schemaStart = SystemClock.elapsedRealtime();
+            migrator.migrate(opened, false);
+            recordStartupPhase("schema", schemaStart);
+            openCount.incrementAndGet();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            recordStartupPhase("total", start);
+            markReady(opened);
+        }
+        if (opened != null) {
+            // 索引类迁移放在就绪之后，读操作不必等待建索引
+            final ConnectionManager current = opened;
+            lifecycleExecutor.execute(() -> migrateOnline(current));
+            synchronized (lifecycleLock) {
+                if (compactionCheck == null) {
+                    compactionCheck = lifecycleExecutor.scheduleWithFixedDelay(this::checkCompaction,
+                            COMPACTION_CHECK_INTERVAL_MS, COMPACTION_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    public StorageProfile getStorageProfile() {
+        return storageProfile;
+    }
+
+    // 新的存储配置在下次打开数据库时生效
+    public static void setStorageProfile(Context context, StorageProfile profile) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putString(KEY_STORAGE_PROFILE, profile.name().toLowerCase(Locale.ROOT))
+                .apply();
+    }
+
+    // 错词反复合并、标记已解决会留下大量半空的块，填充率低于阈值时安排一次整理
+    private void checkCompaction() {
+        ConnectionManager current = connections;
+        if (current == null || compactionRequested) {
+            return;
+        }
+        Map<String, Long> info = getStorageInfo();
+        Long fillRate = info.get("CHUNKS_FILL_RATE");
+        Long fileSize = info.get("FILE_SIZE");
+        if (fillRate != null && fileSize != null
+                && fillRate < storageProfile.compactBelowFillRate && fileSize >= MIN_COMPACT_FILE_SIZE) {
+            Log.d(TAG, "Chunk fill rate " + fillRate + "% in " + fileSize + " bytes, compacting on next idle close");
+            requestCompaction();
+        }
+    }
+
+    // 整理需要独占数据库，只在没有租约、空闲关闭时执行
+    public void requestCompaction() {
+        compactionRequested = true;
+        synchronized (lifecycleLock) {
+            if (leaseCount == 0 && connections != null && pendingClose == null) {
+                pendingClose = lifecycleExecutor.schedule(this::closeIfIdle, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    public int getCompactionCount() {
+        return compactionCount.get();
+    }
+
+    public long getLastCompactionBytesSaved() {
+        return lastCompactionBytesSaved;
+    }
+
+    public Map<String, Long> getStorageInfo() {
+        Map<String, Long> info = new LinkedHashMap<>();
+        try {
+            ConnectionManager connections = connections();
+            connections.read(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, "SELECT SETTING_NAME, SETTING_VALUE " +
+                        "FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME IN " +
+                        "('info.FILE_SIZE', 'info.FILL_RATE', 'info.CHUNKS_FILL_RATE', 'info.CHUNK_COUNT', " +
+                        "'info.CACHE_SIZE', 'info.CACHE_MAX_SIZE', 'info.CACHE_HIT_RATIO', 'WRITE_DELAY')");
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    try {
+                        info.put(name.startsWith("info.") ? name.substring(5) : name, Long.parseLong(rs.getString(2)));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+                rs.close();
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return info;
+    }
+
+    private void recordStartupPhase(String phase, long phaseStart) {
+        long elapsed = SystemClock.elapsedRealtime() - phaseStart;
+        synchronized (startupTimings) {
+            startupTimings.put(phase, elapsed);
+        }
+        Log.d(TAG, "Startup phase " + phase + ": " + elapsed + "ms");
+    }
+
+    public Map<String, Long> getStartupTimings() {
+        synchronized (startupTimings) {
+            return new LinkedHashMap<>(startupTimings);
+        }
+    }
+
+    private void markReady(ConnectionManager opened) {
+        List<ReadyCallback> callbacks;
+        CountDownLatch latch;
+        synchronized (lifecycleLock) {
+            connections = opened;
+            opening = false;
+            ready = true;
+            latch = readyLatch;
+            callbacks = new ArrayList<>(readyCallbacks);
+            readyCallbacks.clear();
+        }
+        latch.countDown();
+        for (ReadyCallback callback : callbacks) {
+            mainHandler.post(callback::onDatabaseReady);
+        }
     }
 
-    private void createTables() {
+    public boolean isReady() {
+        synchronized (lifecycleLock) {
+            return ready;
+        }
+    }
+
+    public void whenReady(ReadyCallback callback) {
+        synchronized (lifecycleLock) {
+            if (!ready) {
+                readyCallbacks.add(callback);
+                startOpenIfNeeded();
+                return;
+            }
+        }
+        mainHandler.post(callback::onDatabaseReady);
+    }
+
+    private ConnectionManager connections() throws SQLException {
+        while (true) {
+            CountDownLatch latch;
+            synchronized (lifecycleLock) {
+                startOpenIfNeeded();
+                latch = readyLatch;
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the database", e);
+            }
+            synchronized (lifecycleLock) {
+                if (connections != null) {
+                    return connections;
+                }
+                // 打开失败时 ready 仍为 true；为 false 说明刚打开就被 close() 关掉了，重新打开
+                if (ready) {
+                    throw new SQLException("Database failed to open");
+                }
+            }
+        }
+    }
+
+    static SchemaMigrator buildMigrator() {
+        return new SchemaMigrator()
+                .add(1, "create words and mistake_words", connection -> {
+                    Statement stmt = connection.createStatement();
+                    stmt.execute("CREATE TABLE IF NOT EXISTS words (" +
+                            "id IDENTITY PRIMARY KEY, " +
+                            "word VARCHAR(255) NOT NULL, " +
+                            "pronunciation TEXT, " +
+                            "meaning TEXT, " +
+                            "example_sentence TEXT, " +
+                            "created_at BIGINT, " +
+                            "last_review_time BIGINT, " +
+                            "review_count INT DEFAULT 0, " +
+                            "is_learned BOOLEAN DEFAULT FALSE)");
+                    stmt.execute("CREATE TABLE IF NOT EXISTS mistake_words (" +
+                            "id IDENTITY PRIMARY KEY, " +
+                            "word_id BIGINT, " +
+                            "word VARCHAR(255) NOT NULL, " +
+                            "mistake_type VARCHAR(50), " +
+                            "added_at BIGINT, " +
+                            "mistake_count INT DEFAULT 1, " +
+                            "is_resolved BOOLEAN DEFAULT FALSE)");
+                    stmt.close();
+                })
+                // 小写列供 findWordByText 使用
+                .add(2, "add words.word_lower", connection -> {
+                    Statement stmt = connection.createStatement();
+                    stmt.execute("ALTER TABLE words ADD COLUMN IF NOT EXISTS word_lower VARCHAR(255)");
+                    stmt.execute("UPDATE words SET word_lower = LOWER(TRIM(word)) WHERE word_lower IS NULL");
+                    stmt.close();
+                })
+                // 复习队列按 next_due_at 做索引范围扫描；先不带默认值加列，保证旧行都走回填
+                .add(3, "add words.next_due_at", connection -> {
+                    Statement stmt = connection.createStatement();
+                    stmt.execute("ALTER TABLE words ADD COLUMN IF NOT EXISTS next_due_at BIGINT");
+                    stmt.execute("UPDATE words SET next_due_at = CASE WHEN last_review_time IS NULL OR last_review_time = 0 " +
+                            "THEN 0 ELSE last_review_time + " + REVIEW_INTERVAL + " END WHERE next_due_at IS NULL");
+                    stmt.execute("ALTER TABLE words ALTER COLUMN next_due_at SET DEFAULT 0");
+                    stmt.close();
+                })
+                // 错词按 (word_id, mistake_type) 唯一，建索引前先合并历史重复行。
+                // 唯一索引不约束 NULL，没有类型的错词统一存成空串，列改为 NOT NULL
+                .add(4, "unique mistake_words(word_id, mistake_type)", connection -> {
+                    compactMistakeWords(connection);
+                    Statement stmt = connection.createStatement();
+                    stmt.execute("ALTER TABLE mistake_words ALTER COLUMN mistake_type SET DEFAULT ''");
+                    stmt.execute("ALTER TABLE mistake_words ALTER COLUMN mistake_type SET NOT NULL");
+                    stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_mistake_words_word_type ON mistake_words(word_id, mistake_type)");
+                    stmt.close();
+                })
+                // searchByPrefix 按 (word_lower, id) 排序分页，只有 word_lower 的索引给不出这个顺序
+                .addOnline(5, "index words(word_lower, id)", connection ->
+                        createIndex(connection, "CREATE INDEX IF NOT EXISTS idx_words_word_lower ON words(word_lower, id)"))
+                .addOnline(6, "index words.next_due_at", connection ->
+                        createIndex(connection, "CREATE INDEX IF NOT EXISTS idx_words_next_due_at ON words(next_due_at, id)"))
+                // H2 不会倒序扫描索引，游标按 created_at DESC, id DESC 分页，索引也要按倒序建
+                .addOnline(7, "index words.created_at", connection ->
+                        createIndex(connection, "CREATE INDEX IF NOT EXISTS idx_words_created_at ON words(created_at DESC, id DESC)"))
+                // 变更戳：每次写入时更新，增量快照按它找出水位之后改过的行
+                .add(8, "add updated_at to words and mistake_words", connection -> {
+                    Statement stmt = connection.createStatement();
+                    stmt.execute("ALTER TABLE words ADD COLUMN IF NOT EXISTS updated_at BIGINT");
+                    stmt.execute("UPDATE words SET updated_at = GREATEST(COALESCE(created_at, 0), " +
+                            "COALESCE(last_review_time, 0)) WHERE updated_at IS NULL");
+                    stmt.execute("ALTER TABLE words ALTER COLUMN updated_at SET DEFAULT 0");
+                    stmt.execute("ALTER TABLE mistake_words ADD COLUMN IF NOT EXISTS updated_at BIGINT");
+                    stmt.execute("UPDATE mistake_words SET updated_at = COALESCE(added_at, 0) WHERE updated_at IS NULL");
+                    stmt.execute("ALTER TABLE mistake_words ALTER COLUMN updated_at SET DEFAULT 0");
+                    stmt.close();
+                })
+                .addOnline(9, "index words.updated_at", connection ->
+                        createIndex(connection, "CREATE INDEX IF NOT EXISTS idx_words_updated_at ON words(updated_at, id)"))
+                .addOnline(10, "index mistake_words.updated_at", connection ->
+                        createIndex(connection, "CREATE INDEX IF NOT EXISTS idx_mistake_words_updated_at " +
+                                "ON mistake_words(updated_at, id)"));
+    }
+
+    private void migrateOnline(ConnectionManager opened) {
         try {
-            Statement stmt = connection.createStatement();
-            
-            String createWordsTable = "CREATE TABLE IF NOT EXISTS words (" +
-                    "id IDENTITY PRIMARY KEY, " +
-                    "word VARCHAR(255) NOT NULL, " +
-                    "pronunciation TEXT, " +
-                    "meaning TEXT, " +
-                    "example_sentence TEXT, " +
-                    "created_at BIGINT, " +
-                    "last_review_time BIGINT, " +
-                    "review_count INT DEFAULT 0, " +
-                    "is_learned BOOLEAN DEFAULT FALSE)";
-            
-            String createMistakeWordsTable = "CREATE TABLE IF NOT EXISTS mistake_words (" +
-                    "id IDENTITY PRIMARY KEY, " +
-                    "word_id BIGINT, " +
-                    "word VARCHAR(255) NOT NULL, " +
-                    "mistake_type VARCHAR(50), " +
-                    "added_at BIGINT, " +
-                    "mistake_count INT DEFAULT 1, " +
-                    "is_resolved BOOLEAN DEFAULT FALSE)";
-            
-            stmt.execute(createWordsTable);
-            stmt.execute(createMistakeWordsTable);
-            stmt.close();
+            int applied = migrator.migrate(opened, true);
+            if (applied > 0) {
+                Log.d(TAG, "Online migrations done, schema v" + migrator.getCurrentVersion(opened));
+            }
+        } catch (SQLException e) {
+            // 数据库在建索引期间被关闭时会走到这里，下次打开会继续
+            if (!opened.isClosed()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public int getSchemaVersion() {
+        try {
+            return migrator.getCurrentVersion(connections());
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return -1;
     }
 
+    @Override
     public long insertWord(Word word) {
         try {
-            String sql = "INSERT INTO words (word, pronunciation, meaning, example_sentence, created_at, last_review_time, review_count, is_learned) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-            PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            stmt.setString(1, word.getWord());
-            stmt.setString(2, word.getPronunciation());
-            stmt.setString(3, word.getMeaning());
-            stmt.setString(4, word.getExampleSentence());
-            stmt.setLong(5, word.getCreatedAt());
-            stmt.setLong(6, word.getLastReviewTime());
-            stmt.setInt(7, word.getReviewCount());
-            stmt.setBoolean(8, word.isLearned());
-            
-            stmt.executeUpdate();
-            ResultSet rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                long id = rs.getLong(1);
-                stmt.close();
-                return id;
+            long countGeneration = countCache.wordGeneration();
+            ConnectionManager connections = connections();
+            long id = connections.write(connection -> {
+                PreparedStatement stmt = connections.prepareWithKeys(connection, INSERT_WORD_SQL);
+                bindWordInsert(stmt, word);
+                stmt.setLong(11, nextChangeStamp(connection));
+                stmt.executeUpdate();
+                ResultSet rs = stmt.getGeneratedKeys();
+                long generatedId = rs.next() ? rs.getLong(1) : -1;
+                rs.close();
+                return generatedId;
+            });
+            if (id >= 0) {
+                wordSampler.onWordInserted(id, word.isLearned());
+                wordCache.onWordInserted(word);
+                searchIndex.onWordInserted(id, word.getMeaning(), word.getExampleSentence());
+                countCache.addWords(1, countGeneration);
             }
-            stmt.close();
+            return id;
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return -1;
     }
 
+    @Override
+    public long[] insertWords(List<Word> words) {
+        return insertWords(words, DEFAULT_BATCH_SIZE);
+    }
+
+    public long[] insertWords(List<Word> words, int chunkSize) {
+        long[] ids = new long[words.size()];
+        Arrays.fill(ids, -1);
+        if (words.isEmpty()) {
+            return ids;
+        }
+        int batchSize = Math.max(1, chunkSize);
+        try {
+            ConnectionManager connections = connections();
+            long countGeneration = countCache.wordGeneration();
+            connections.transaction(connection -> {
+                long stamp = nextChangeStamp(connection);
+                // 批量语句只在本次导入中使用，不放入语句缓存
+                try (PreparedStatement stmt = connection.prepareStatement(INSERT_WORD_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    int start = 0;
+                    for (int i = 0; i < words.size(); i++) {
+                        bindWordInsert(stmt, words.get(i));
+                        stmt.setLong(11, stamp);
+                        stmt.addBatch();
+
+                        if (i - start + 1 == batchSize || i == words.size() - 1) {
+                            stmt.executeBatch();
+                            readGeneratedKeys(stmt, ids, start);
+                            start = i + 1;
+                        }
+                    }
+                }
+                return null;
+            });
+            for (int i = 0; i < ids.length; i++) {
+                wordSampler.onWordInserted(ids[i], words.get(i).isLearned());
+                wordCache.onWordInserted(words.get(i));
+                searchIndex.onWordInserted(ids[i], words.get(i).getMeaning(), words.get(i).getExampleSentence());
+            }
+            countCache.addWords(words.size(), countGeneration);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            Arrays.fill(ids, -1);
+        }
+        return ids;
+    }
+
+    @Override
     public void updateWord(Word word) {
         try {
-            String sql = "UPDATE words SET pronunciation = ?, meaning = ?, example_sentence = ?, " +
-                    "last_review_time = ?, review_count = ?, is_learned = ? WHERE id = ?";
-            PreparedStatement stmt = connection.prepareStatement(sql);
-            stmt.setString(1, word.getPronunciation());
-            stmt.setString(2, word.getMeaning());
-            stmt.setString(3, word.getExampleSentence());
-            stmt.setLong(4, word.getLastReviewTime());
-            stmt.setInt(5, word.getReviewCount());
-            stmt.setBoolean(6, word.isLearned());
-            stmt.setLong(7, word.getId());
-            stmt.executeUpdate();
-            stmt.close();
+            ConnectionManager connections = connections();
+            connections.write(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, UPDATE_WORD_SQL);
+                stmt.setString(1, word.getPronunciation());
+                stmt.setString(2, word.getMeaning());
+                stmt.setString(3, word.getExampleSentence());
+                stmt.setLong(4, word.getLastReviewTime());
+                stmt.setInt(5, word.getReviewCount());
+                stmt.setBoolean(6, word.isLearned());
+                stmt.setLong(7, nextDueAt(word.getLastReviewTime()));
+                stmt.setLong(8, nextChangeStamp(connection));
+                stmt.setLong(9, word.getId());
+                stmt.executeUpdate();
+                return null;
+            });
+            wordSampler.onWordUpdated(word.getId(), word.isLearned());
+            wordCache.onWordUpdated(word);
+            searchIndex.onWordUpdated(word.getId(), word.getMeaning(), word.getExampleSentence());
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    @Override
+    public int updateWords(List<Word> words) {
+        if (words.isEmpty()) {
+            return 0;
+        }
+        try {
+            ConnectionManager connections = connections();
+            int updated = connections.transaction(connection -> {
+                long stamp = nextChangeStamp(connection);
+                PreparedStatement stmt = connections.prepare(connection, UPDATE_WORD_SQL);
+                try {
+                    for (Word word : words) {
+                        stmt.setString(1, word.getPronunciation());
+                        stmt.setString(2, word.getMeaning());
+                        stmt.setString(3, word.getExampleSentence());
+                        stmt.setLong(4, word.getLastReviewTime());
+                        stmt.setInt(5, word.getReviewCount());
+                        stmt.setBoolean(6, word.isLearned());
+                        stmt.setLong(7, nextDueAt(word.getLastReviewTime()));
+                        stmt.setLong(8, stamp);
+                        stmt.setLong(9, word.getId());
+                        stmt.addBatch();
+                    }
+                    int total = 0;
+                    for (int count : stmt.executeBatch()) {
+                        total += Math.max(count, 0);
+                    }
+                    return total;
+                } finally {
+                    stmt.clearBatch();
+                }
+            });
+            for (Word word : words) {
+                wordSampler.onWordUpdated(word.getId(), word.isLearned());
+                wordCache.onWordUpdated(word);
+                searchIndex.onWordUpdated(word.getId(), word.getMeaning(), word.getExampleSentence());
+            }
+            return updated;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
     public Word getWordById(long id) {
+        Word cached = wordCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            String sql = "SELECT * FROM words WHERE id = ?";
-            PreparedStatement stmt = connection.prepareStatement(sql);
-            stmt.setLong(1, id);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                Word word = new Word();
-                word.setId(rs.getLong("id"));
-                word.setWord(rs.getString("word"));
-                word.setPronunciation(rs.getString("pronunciation"));
-                word.setMeaning(rs.getString("meaning"));
-                word.setExampleSentence(rs.getString("example_sentence"));
-                word.setCreatedAt(rs.getLong("created_at"));
-                word.setLastReviewTime(rs.getLong("last_review_time"));
-                word.setReviewCount(rs.getInt("review_count"));
-                word.setLearned(rs.getBoolean("is_learned"));
-                stmt.close();
-                return word;
+            ConnectionManager connections = connections();
+            long generation = wordCache.generation();
+            Word word = connections.read(connection -> {
+                String sql = "SELECT " + WORD_COLUMNS + " FROM words WHERE id = ?";
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                stmt.setLong(1, id);
+                ResultSet rs = stmt.executeQuery();
+
+                Word row = rs.next() ? WordRowMapper.forResultSet(rs).map(rs) : null;
+                rs.close();
+                return row;
+            });
+            if (word != null) {
+                wordCache.put(word, generation);
             }
-            stmt.close();
+            return word;
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return null;
     }
 
+    @Override
+    public Word findWordByText(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = normalizeWord(text);
+        Word cached = wordCache.getByText(normalized);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            ConnectionManager connections = connections();
+            long generation = wordCache.generation();
+            Word word = connections.read(connection -> {
+                String sql = "SELECT " + WORD_COLUMNS + " FROM words WHERE word_lower = ? ORDER BY created_at DESC LIMIT 1";
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                stmt.setString(1, normalized);
+                ResultSet rs = stmt.executeQuery();
+
+                Word row = rs.next() ? WordRowMapper.forResultSet(rs).map(rs) : null;
+                rs.close();
+                return row;
+            });
+            if (word != null) {
+                wordCache.putByText(normalized, word, generation);
+            }
+            return word;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
     public List<Word> getAllWords() {
         List<Word> words = new ArrayList<>();
         try {
-            String sql = "SELECT * FROM words ORDER BY created_at DESC";
-            Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            
-            while (rs.next()) {
-                Word word = new Word();
-                word.setId(rs.getLong("id"));
-                word.setWord(rs.getString("word"));
-                word.setPronunciation(rs.getString("pronunciation"));
-                word.setMeaning(rs.getString("meaning"));
-                word.setExampleSentence(rs.getString("example_sentence"));
-                word.setCreatedAt(rs.getLong("created_at"));
-                word.setLastReviewTime(rs.getLong("last_review_time"));
-                word.setReviewCount(rs.getInt("review_count"));
-                word.setLearned(rs.getBoolean("is_learned"));
-                words.add(word);
-            }
-            stmt.close();
+            ConnectionManager connections = connections();
+            connections.read(connection -> {
+                String sql = "SELECT " + WORD_COLUMNS + " FROM words ORDER BY created_at DESC";
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                ResultSet rs = stmt.executeQuery();
+
+                WordRowMapper.readAll(rs, words);
+                rs.close();
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    public WordCursor openWordCursor(int pageSize) {
+        return new WordCursor(this::readWordsPage, pageSize);
+    }
+
+    @Override
+    public List<Word> getWordsPage(Word after, int limit) {
+        try {
+            return readWordsPage(after, limit);
         } catch (SQLException e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+
+    // 出错时抛出，WordCursor 据此区分读失败和读完
+    List<Word> readWordsPage(Word after, int limit) throws SQLException {
+        List<Word> words = new ArrayList<>();
+        ConnectionManager connections = connections();
+        connections.read(connection -> {
+            PreparedStatement stmt;
+            if (after == null) {
+                stmt = connections.prepare(connection, "SELECT " + WORD_COLUMNS + " FROM words ORDER BY created_at DESC, id DESC LIMIT ?");
+                stmt.setInt(1, limit);
+            } else {
+                stmt = connections.prepare(connection, "SELECT " + WORD_COLUMNS + " FROM words WHERE (created_at, id) < (?, ?) " +
+                        "ORDER BY created_at DESC, id DESC LIMIT ?");
+                stmt.setLong(1, after.getCreatedAt());
+                stmt.setLong(2, after.getId());
+                stmt.setInt(3, limit);
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            WordRowMapper.readAll(rs, words);
+            rs.close();
+            return null;
+        });
         return words;
     }
 
+    @Override
     public List<Word> getRandomWords(int count) {
         List<Word> words = new ArrayList<>();
+        if (count <= 0) {
+            return words;
+        }
         try {
-            String sql = "SELECT * FROM words ORDER BY RANDOM() LIMIT ?";
-            PreparedStatement stmt = connection.prepareStatement(sql);
-            stmt.setInt(1, count);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Word word = new Word();
-                word.setId(rs.getLong("id"));
-                word.setWord(rs.getString("word"));
-                word.setPronunciation(rs.getString("pronunciation"));
-                word.setMeaning(rs.getString("meaning"));
-                word.setExampleSentence(rs.getString("example_sentence"));
-                word.setCreatedAt(rs.getLong("created_at"));
-                word.setLastReviewTime(rs.getLong("last_review_time"));
-                word.setReviewCount(rs.getInt("review_count"));
-                word.setLearned(rs.getBoolean("is_learned"));
-                words.add(word);
-            }
-            stmt.close();
+            ConnectionManager connections = connections();
+            long generation = wordCache.generation();
+            connections.read(connection -> {
+                List<Long> ids = wordSampler.sample(connection, count);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+
+                String sql = "SELECT " + WORD_COLUMNS + " FROM words WHERE id = ANY(?)";
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                stmt.setArray(1, connection.createArrayOf("BIGINT", ids.toArray(new Long[0])));
+                ResultSet rs = stmt.executeQuery();
+
+                Map<Long, Word> byId = new HashMap<>();
+                for (Word word : WordRowMapper.readAll(rs)) {
+                    byId.put(word.getId(), word);
+                }
+                rs.close();
+
+                for (Long id : ids) {
+                    Word word = byId.get(id);
+                    if (word != null) {
+                        words.add(word);
+                    }
+                }
+                return null;
+            });
+            wordCache.putAll(words, generation);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return words;
     }
 
+    @Override
+    public List<Word> searchByPrefix(String prefix, Word after, int limit) {
+        List<Word> words = new ArrayList<>();
+        String lower = normalizeWord(prefix);
+        if (lower == null || lower.isEmpty() || limit <= 0) {
+            return words;
+        }
+        String upper = prefixUpperBound(lower);
+        try {
+            ConnectionManager connections = connections();
+            connections.read(connection -> {
+                // 前缀转成 word_lower 上的范围条件，走 idx_words_word_lower 索引，按索引顺序直接分页
+                StringBuilder sql = new StringBuilder("SELECT " + WORD_COLUMNS + " FROM words WHERE word_lower >= ?");
+                if (upper != null) {
+                    sql.append(" AND word_lower < ?");
+                }
+                if (after != null) {
+                    sql.append(" AND (word_lower, id) > (?, ?)");
+                }
+                sql.append(" ORDER BY word_lower ASC, id ASC LIMIT ?");
+
+                PreparedStatement stmt = connections.prepare(connection, sql.toString());
+                int index = 1;
+                stmt.setString(index++, lower);
+                if (upper != null) {
+                    stmt.setString(index++, upper);
+                }
+                if (after != null) {
+                    stmt.setString(index++, normalizeWord(after.getWord()));
+                    stmt.setLong(index++, after.getId());
+                }
+                stmt.setInt(index, limit);
+                ResultSet rs = stmt.executeQuery();
+
+                WordRowMapper.readAll(rs, words);
+                rs.close();
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    @Override
+    public List<Word> searchByText(String query, long beforeId, int limit) {
+        List<Word> words = new ArrayList<>();
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return words;
+        }
+        try {
+            ConnectionManager connections = connections();
+            connections.read(connection -> {
+                searchIndex.ensureLoaded(sink -> {
+                    Statement stmt = connection.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT id, meaning, example_sentence FROM words");
+                    while (rs.next()) {
+                        sink.add(rs.getLong(1), rs.getString(2), rs.getString(3));
+                    }
+                    stmt.close();
+                });
+
+                String sql = "SELECT " + WORD_COLUMNS + " FROM words WHERE id = ANY(?)";
+                long cursor = beforeId;
+                while (words.size() < limit) {
+                    List<Long> ids = searchIndex.candidates(query, cursor, limit - words.size());
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    PreparedStatement stmt = connections.prepare(connection, sql);
+                    stmt.setArray(1, connection.createArrayOf("BIGINT", ids.toArray(new Long[0])));
+                    ResultSet rs = stmt.executeQuery();
+                    Map<Long, Word> byId = new HashMap<>();
+                    for (Word word : WordRowMapper.readAll(rs)) {
+                        byId.put(word.getId(), word);
+                    }
+                    rs.close();
+
+                    for (Long id : ids) {
+                        Word word = byId.get(id);
+                        if (word != null && SearchIndex.matches(query, word.getMeaning(), word.getExampleSentence())) {
+                            words.add(word);
+                        }
+                    }
+                    cursor = ids.get(ids.size() - 1);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    public long getWordCacheHits() {
+        return wordCache.getHits();
+    }
+
+    public long getWordCacheMisses() {
+        return wordCache.getMisses();
+    }
+
+    public long getWordCacheEvictions() {
+        return wordCache.getEvictions();
+    }
+
+    public WordSampler getWordSampler() {
+        return wordSampler;
+    }
+
     public List<Word> getWordsForReview(long days) {
+        long timeThreshold = System.currentTimeMillis() - (days * 24 * 60 * 60 * 1000);
+        return getDueWords(timeThreshold + REVIEW_INTERVAL, 10);
+    }
+
+    @Override
+    public List<Word> getDueWords(long now, int limit) {
         List<Word> words = new ArrayList<>();
         try {
-            long timeThreshold = System.currentTimeMillis() - (days * 24 * 60 * 60 * 1000);
-            String sql = "SELECT * FROM words WHERE last_review_time < ? OR last_review_time = 0 ORDER BY last_review_time ASC LIMIT 10";
-            PreparedStatement stmt = connection.prepareStatement(sql);
-            stmt.setLong(1, timeThreshold);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Word word = new Word();
-                word.setId(rs.getLong("id"));
-                word.setWord(rs.getString("word"));
-                word.setPronunciation(rs.getString("pronunciation"));
-                word.setMeaning(rs.getString("meaning"));
-                word.setExampleSentence(rs.getString("example_sentence"));
-                word.setCreatedAt(rs.getLong("created_at"));
-                word.setLastReviewTime(rs.getLong("last_review_time"));
-                word.setReviewCount(rs.getInt("review_count"));
-                word.setLearned(rs.getBoolean("is_learned"));
-                words.add(word);
-            }
-            stmt.close();
+            ConnectionManager connections = connections();
+            long generation = wordCache.generation();
+            connections.read(connection -> {
+                String sql = "SELECT " + WORD_COLUMNS + " FROM words WHERE next_due_at <= ? ORDER BY next_due_at ASC, id ASC LIMIT ?";
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                stmt.setLong(1, now);
+                stmt.setInt(2, limit);
+                ResultSet rs = stmt.executeQuery();
+
+                WordRowMapper.readAll(rs, words);
+                rs.close();
+                return null;
+            });
+            // 复习流程随后会按 id 和单词再次读取这些词，先放进缓存
+            wordCache.putAll(words, generation);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -243,67 +955,699 @@ public class DatabaseHelper {
     }
 
     public void insertMistakeWord(MistakeWord mistakeWord) {
+        recordMistake(mistakeWord);
+    }
+
+    @Override
+    public void recordMistake(MistakeWord mistakeWord) {
         try {
-            String sql = "INSERT INTO mistake_words (word_id, word, mistake_type, added_at, mistake_count, is_resolved) " +
-                    "VALUES (?, ?, ?, ?, ?, ?)";
-            PreparedStatement stmt = connection.prepareStatement(sql);
-            stmt.setLong(1, mistakeWord.getWordId());
-            stmt.setString(2, mistakeWord.getWord());
-            stmt.setString(3, mistakeWord.getMistakeType());
-            stmt.setLong(4, mistakeWord.getAddedAt());
-            stmt.setInt(5, mistakeWord.getMistakeCount());
-            stmt.setBoolean(6, mistakeWord.isResolved());
-            stmt.executeUpdate();
-            stmt.close();
+            ConnectionManager connections = connections();
+            long countGeneration = countCache.mistakeGeneration();
+            int delta = connections.write(connection -> {
+                Boolean wasOpen = readMistakeOpen(connections, connection, mistakeWord);
+                PreparedStatement stmt = connections.prepare(connection, MERGE_MISTAKE_SQL);
+                bindMistake(stmt, mistakeWord, nextChangeStamp(connection));
+                stmt.executeUpdate();
+                return unresolvedDelta(wasOpen, mistakeWord.isResolved());
+            });
+            applyUnresolvedDeltas(Collections.singletonList(mistakeWord), new int[]{delta}, countGeneration);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    @Override
+    public long[] insertMistakeWords(List<MistakeWord> mistakeWords) {
+        return insertMistakeWords(mistakeWords, DEFAULT_BATCH_SIZE);
+    }
+
+    public long[] insertMistakeWords(List<MistakeWord> mistakeWords, int chunkSize) {
+        long[] ids = new long[mistakeWords.size()];
+        Arrays.fill(ids, -1);
+        if (mistakeWords.isEmpty()) {
+            return ids;
+        }
+        int batchSize = Math.max(1, chunkSize);
+        int[] deltas = new int[mistakeWords.size()];
+        try {
+            ConnectionManager connections = connections();
+            long countGeneration = countCache.mistakeGeneration();
+            connections.transaction(connection -> {
+                long stamp = nextChangeStamp(connection);
+                PreparedStatement idStmt = connections.prepare(connection,
+                        "SELECT id FROM mistake_words WHERE word_id = ? AND mistake_type = ?");
+                // 同一批里可能多次出现同一条错词，只有第一次需要查库，之后按本批合并后的状态计算
+                Map<List<Object>, Boolean> openByKey = new HashMap<>();
+                try (PreparedStatement stmt = connection.prepareStatement(MERGE_MISTAKE_SQL)) {
+                    int start = 0;
+                    for (int i = 0; i < mistakeWords.size(); i++) {
+                        MistakeWord mistakeWord = mistakeWords.get(i);
+                        List<Object> key = Arrays.<Object>asList(mistakeWord.getWordId(),
+                                normalizeMistakeType(mistakeWord.getMistakeType()));
+                        Boolean wasOpen = openByKey.containsKey(key)
+                                ? openByKey.get(key) : readMistakeOpen(connections, connection, mistakeWord);
+                        deltas[i] = unresolvedDelta(wasOpen, mistakeWord.isResolved());
+                        openByKey.put(key, !mistakeWord.isResolved());
+                        bindMistake(stmt, mistakeWord, stamp);
+                        stmt.addBatch();
+
+                        if (i - start + 1 == batchSize || i == mistakeWords.size() - 1) {
+                            stmt.executeBatch();
+                            for (int k = start; k <= i; k++) {
+                                ids[k] = lookupMistakeId(idStmt, mistakeWords.get(k));
+                            }
+                            start = i + 1;
+                        }
+                    }
+                }
+                return null;
+            });
+            applyUnresolvedDeltas(mistakeWords, deltas, countGeneration);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            Arrays.fill(ids, -1);
+        }
+        return ids;
+    }
+
+    @Override
     public List<MistakeWord> getAllMistakeWords() {
         List<MistakeWord> mistakeWords = new ArrayList<>();
         try {
-            String sql = "SELECT * FROM mistake_words WHERE is_resolved = FALSE ORDER BY added_at DESC";
-            Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            
-            while (rs.next()) {
-                MistakeWord mistakeWord = new MistakeWord();
-                mistakeWord.setId(rs.getLong("id"));
-                mistakeWord.setWordId(rs.getLong("word_id"));
-                mistakeWord.setWord(rs.getString("word"));
-                mistakeWord.setMistakeType(rs.getString("mistake_type"));
-                mistakeWord.setAddedAt(rs.getLong("added_at"));
-                mistakeWord.setMistakeCount(rs.getInt("mistake_count"));
-                mistakeWord.setResolved(rs.getBoolean("is_resolved"));
-                mistakeWords.add(mistakeWord);
-            }
-            stmt.close();
+            ConnectionManager connections = connections();
+            connections.read(connection -> {
+                String sql = "SELECT " + MISTAKE_COLUMNS + " FROM mistake_words WHERE is_resolved = FALSE ORDER BY added_at DESC";
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                ResultSet rs = stmt.executeQuery();
+
+                mistakeWords.addAll(MistakeWordRowMapper.readAll(rs));
+                rs.close();
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return mistakeWords;
     }
 
+    @Override
     public void resolveMistakeWord(long wordId) {
         try {
-            String sql = "UPDATE mistake_words SET is_resolved = TRUE WHERE word_id = ?";
-            PreparedStatement stmt = connection.prepareStatement(sql);
-            stmt.setLong(1, wordId);
-            stmt.executeUpdate();
-            stmt.close();
+            long countGeneration = countCache.mistakeGeneration();
+            ConnectionManager connections = connections();
+            Map<String, Long> resolved = connections.write(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, resolvedByTypeSql("word_id = ?"));
+                stmt.setLong(1, nextChangeStamp(connection));
+                stmt.setLong(2, wordId);
+                return readCountsByType(stmt);
+            });
+            countCache.resolveMistakes(resolved, countGeneration);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
-    public void close() {
+    @Override
+    public int resolveAllMistakes() {
+        try {
+            long countGeneration = countCache.mistakeGeneration();
+            ConnectionManager connections = connections();
+            int updated = connections.write(connection -> {
+                PreparedStatement stmt = connections.prepare(connection,
+                        "UPDATE mistake_words SET is_resolved = TRUE, updated_at = ? WHERE is_resolved = FALSE");
+                stmt.setLong(1, nextChangeStamp(connection));
+                int count = stmt.executeUpdate();
+                return count;
+            });
+            countCache.resolveAllMistakes(countGeneration);
+            return updated;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    @Override
+    public int resolveMistakesByType(String mistakeType) {
+        try {
+            long countGeneration = countCache.mistakeGeneration();
+            ConnectionManager connections = connections();
+            Map<String, Long> resolved = connections.write(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, resolvedByTypeSql("mistake_type = ?"));
+                stmt.setLong(1, nextChangeStamp(connection));
+                stmt.setString(2, normalizeMistakeType(mistakeType));
+                return readCountsByType(stmt);
+            });
+            countCache.resolveMistakes(resolved, countGeneration);
+            return total(resolved);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    @Override
+    public int resolveMistakesForWords(Collection<Long> wordIds) {
+        if (wordIds == null || wordIds.isEmpty()) {
+            return 0;
+        }
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            long countGeneration = countCache.mistakeGeneration();
+            ConnectionManager connections = connections();
+            Map<String, Long> resolved = connections.write(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, resolvedByTypeSql("word_id = ANY(?)"));
+                stmt.setLong(1, nextChangeStamp(connection));
+                stmt.setArray(2, connection.createArrayOf("BIGINT", wordIds.toArray(new Long[0])));
+                return readCountsByType(stmt);
+            });
+            countCache.resolveMistakes(resolved, countGeneration);
+            return total(resolved);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // 把满足条件的未解决错词标记为已解决，FINAL TABLE 取回这次改到的行按类型计数，
+    // 计数缓存据此扣减，不必让首页下次重新 COUNT
+    private static String resolvedByTypeSql(String condition) {
+        return "SELECT mistake_type, COUNT(*) FROM FINAL TABLE (UPDATE mistake_words SET is_resolved = TRUE, " +
+                "updated_at = ? WHERE is_resolved = FALSE AND " + condition + ") GROUP BY mistake_type";
+    }
+
+    private static Map<String, Long> readCountsByType(PreparedStatement stmt) throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        ResultSet rs = stmt.executeQuery();
+        while (rs.next()) {
+            counts.put(rs.getString(1), rs.getLong(2));
+        }
+        rs.close();
+        return counts;
+    }
+
+    static int total(Map<String, Long> counts) {
+        long total = 0;
+        for (Long count : counts.values()) {
+            total += count;
+        }
+        return (int) total;
+    }
+
+    @Override
+    public long countWords() {
+        long cached = countCache.getWordCount();
+        if (CountCache.isKnown(cached)) {
+            return cached;
+        }
+        // 查询期间有写入时结果可能已经过期，只返回不缓存
+        long generation = countCache.wordGeneration();
+        long count = queryCount("SELECT COUNT(*) FROM words");
+        if (CountCache.isKnown(count)) {
+            countCache.setWordCount(count, generation);
+        }
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public long countUnresolvedMistakes() {
+        long cached = countCache.getUnresolvedMistakeCount();
+        if (CountCache.isKnown(cached)) {
+            return cached;
+        }
+        long generation = countCache.mistakeGeneration();
+        long count = queryCount("SELECT COUNT(*) FROM mistake_words WHERE is_resolved = FALSE");
+        if (CountCache.isKnown(count)) {
+            countCache.setUnresolvedMistakeCount(count, generation);
+        }
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public long countUnresolvedMistakesByType(String mistakeType) {
+        Long count = getUnresolvedMistakeCountsByType().get(normalizeMistakeType(mistakeType));
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public Map<String, Long> getUnresolvedMistakeCountsByType() {
+        Map<String, Long> cached = countCache.getUnresolvedByType();
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        long generation = countCache.mistakeGeneration();
+        try {
+            ConnectionManager connections = connections();
+            connections.read(connection -> {
+                String sql = "SELECT mistake_type, COUNT(*) FROM mistake_words WHERE is_resolved = FALSE GROUP BY mistake_type";
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    counts.put(rs.getString(1), rs.getLong(2));
+                }
+                rs.close();
+                return null;
+            });
+            countCache.setUnresolvedByType(counts, generation);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
+    public SnapshotInfo exportSnapshot(File file) {
+        return exportSnapshot(file, 0);
+    }
+
+    // since 为 0 时导出全量快照，否则只导出变更戳大于 since 的行；先写临时文件，完成后再替换目标文件
+    public SnapshotInfo exportSnapshot(File file, long since) {
+        long start = SystemClock.elapsedRealtime();
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            ConnectionManager connections = connections();
+            // 在写锁内取水位：此刻没有进行中的写入，之后的写入拿到的变更戳都比它大
+            long watermark = connections.write(this::currentChangeStamp);
+            SnapshotInfo info;
+            try (FileOutputStream out = new FileOutputStream(temp);
+                 FileChannel channel = out.getChannel();
+                 SnapshotWriter writer = new SnapshotWriter(channel, since > 0, since, watermark)) {
+                exportWords(connections, writer, since, watermark);
+                exportMistakes(connections, writer, since, watermark);
+                writer.finish();
+                channel.force(true);
+                info = new SnapshotInfo(since > 0, since, watermark, writer.getWordCount(), writer.getMistakeCount(),
+                        writer.getBytesWritten(), SystemClock.elapsedRealtime() - start);
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot move snapshot to " + file);
             }
+            Log.d(TAG, "Exported " + info);
+            return info;
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            temp.delete();
+        }
+        return null;
+    }
+
+    // 按 (updated_at, id) 分页读取，只取到水位为止：导出期间被修改的行变更戳都大于水位，
+    // 不会重复写进这份快照，而是留给以这份快照的水位为起点的下一次增量
+    private void exportWords(ConnectionManager connections, SnapshotWriter writer, long since, long watermark)
+            throws SQLException {
+        String sql = "SELECT word, pronunciation, meaning, example_sentence, created_at, last_review_time, " +
+                "review_count, is_learned, updated_at, id FROM words WHERE (updated_at, id) > (?, ?) " +
+                "AND updated_at <= ? ORDER BY updated_at, id LIMIT ?";
+        long[] after = {since > 0 ? since : Long.MIN_VALUE, Long.MAX_VALUE};
+        int rows;
+        do {
+            rows = connections.read(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                stmt.setLong(1, after[0]);
+                stmt.setLong(2, after[1]);
+                stmt.setLong(3, watermark);
+                stmt.setInt(4, SNAPSHOT_PAGE_SIZE);
+                ResultSet rs = stmt.executeQuery();
+                int count = 0;
+                try {
+                    while (rs.next()) {
+                        writer.writeWord(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                rs.getLong(5), rs.getLong(6), rs.getInt(7), rs.getBoolean(8), rs.getLong(9));
+                        after[0] = rs.getLong(9);
+                        after[1] = rs.getLong(10);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new SQLException("Failed to write snapshot", e);
+                } finally {
+                    rs.close();
+                }
+                return count;
+            });
+        } while (rows == SNAPSHOT_PAGE_SIZE);
+    }
+
+    private void exportMistakes(ConnectionManager connections, SnapshotWriter writer, long since, long watermark)
+            throws SQLException {
+        String sql = "SELECT word, mistake_type, added_at, mistake_count, is_resolved, updated_at, id " +
+                "FROM mistake_words WHERE (updated_at, id) > (?, ?) AND updated_at <= ? ORDER BY updated_at, id LIMIT ?";
+        long[] after = {since > 0 ? since : Long.MIN_VALUE, Long.MAX_VALUE};
+        int rows;
+        do {
+            rows = connections.read(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                stmt.setLong(1, after[0]);
+                stmt.setLong(2, after[1]);
+                stmt.setLong(3, watermark);
+                stmt.setInt(4, SNAPSHOT_PAGE_SIZE);
+                ResultSet rs = stmt.executeQuery();
+                int count = 0;
+                try {
+                    while (rs.next()) {
+                        writer.writeMistake(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getInt(4),
+                                rs.getBoolean(5), rs.getLong(6));
+                        after[0] = rs.getLong(6);
+                        after[1] = rs.getLong(7);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new SQLException("Failed to write snapshot", e);
+                } finally {
+                    rs.close();
+                }
+                return count;
+            });
+        } while (rows == SNAPSHOT_PAGE_SIZE);
+    }
+
+    // 全量和增量快照都可以直接导入，按批提交；导入的行保留快照里的变更戳，本地较新的行不会被覆盖
+    public SnapshotInfo importSnapshot(File file) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            ConnectionManager connections = connections();
+            SnapshotInfo info;
+            try (FileInputStream in = new FileInputStream(file);
+                 FileChannel channel = in.getChannel();
+                 SnapshotReader reader = new SnapshotReader(channel)) {
+                SnapshotImport handler = new SnapshotImport(connections);
+                try {
+                    reader.read(handler);
+                    handler.flush();
+                } finally {
+                    // 出错时已提交的批次同样需要让缓存失效
+                    if (handler.wordCount > 0 || handler.mistakeCount > 0) {
+                        wordSampler.invalidate();
+                        wordCache.invalidate();
+                        searchIndex.invalidate();
+                        countCache.invalidateAll();
+                        // 导入在后台线程执行，顺便把计数重新算好，首页回到前台时不必在主线程 COUNT
+                        countWords();
+                        countUnresolvedMistakes();
+                        getUnresolvedMistakeCountsByType();
+                    }
+                }
+                info = new SnapshotInfo(reader.isDelta(), reader.getSince(), reader.getWatermark(),
+                        handler.wordCount, handler.mistakeCount, reader.getBytesRead(),
+                        SystemClock.elapsedRealtime() - start);
+            }
+            Log.d(TAG, "Imported " + info);
+            return info;
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // 攒够一批再在一个事务里写入；快照里单词都排在错词之前，错词导入时对应的单词已经在库里。
+    // 恢复到空库时也走 MERGE，中途失败后重新导入同一份快照不会插入重复的单词
+    private class SnapshotImport implements SnapshotReader.Handler {
+        private final ConnectionManager connections;
+        private final List<Word> words = new ArrayList<>();
+        private final List<MistakeWord> mistakes = new ArrayList<>();
+        private final List<Long> stamps = new ArrayList<>();
+        private long wordCount = 0;
+        private long mistakeCount = 0;
+
+        SnapshotImport(ConnectionManager connections) {
+            this.connections = connections;
+        }
+
+        @Override
+        public void onWord(Word word, long updatedAt) throws SQLException {
+            if (!mistakes.isEmpty()) {
+                flush();
+            }
+            words.add(word);
+            stamps.add(updatedAt);
+            if (words.size() >= DEFAULT_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onMistake(MistakeWord mistakeWord, long updatedAt) throws SQLException {
+            if (!words.isEmpty()) {
+                flush();
+            }
+            mistakes.add(mistakeWord);
+            stamps.add(updatedAt);
+            if (mistakes.size() >= DEFAULT_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (stamps.isEmpty()) {
+                return;
+            }
+            connections.transaction(connection -> {
+                long maxStamp = currentChangeStamp(connection);
+                String sql = !words.isEmpty() ? IMPORT_WORD_SQL : IMPORT_MISTAKE_SQL;
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < words.size(); i++) {
+                        bindWordInsert(stmt, words.get(i));
+                        stmt.setLong(11, stamps.get(i));
+                        stmt.addBatch();
+                    }
+                    for (int i = 0; i < mistakes.size(); i++) {
+                        MistakeWord mistakeWord = mistakes.get(i);
+                        stmt.setString(1, normalizeWord(mistakeWord.getWord()));
+                        stmt.setString(2, mistakeWord.getWord());
+                        stmt.setString(3, normalizeMistakeType(mistakeWord.getMistakeType()));
+                        stmt.setLong(4, mistakeWord.getAddedAt());
+                        stmt.setInt(5, Math.max(1, mistakeWord.getMistakeCount()));
+                        stmt.setBoolean(6, mistakeWord.isResolved());
+                        stmt.setLong(7, stamps.get(i));
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                for (Long stamp : stamps) {
+                    maxStamp = Math.max(maxStamp, stamp);
+                }
+                // 本地之后的写入要排在导入的行之后
+                lastChangeStamp = maxStamp;
+                return null;
+            });
+            wordCount += words.size();
+            mistakeCount += mistakes.size();
+            words.clear();
+            mistakes.clear();
+            stamps.clear();
+        }
+    }
+
+    private long queryCount(String sql) {
+        try {
+            ConnectionManager connections = connections();
+            return connections.read(connection -> {
+                PreparedStatement stmt = connections.prepare(connection, sql);
+                ResultSet rs = stmt.executeQuery();
+                long count = rs.next() ? rs.getLong(1) : 0;
+                rs.close();
+                return count;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return -1;
+    }
+
+    private void bindWordInsert(PreparedStatement stmt, Word word) throws SQLException {
+        stmt.setString(1, word.getWord());
+        stmt.setString(2, normalizeWord(word.getWord()));
+        stmt.setString(3, word.getPronunciation());
+        stmt.setString(4, word.getMeaning());
+        stmt.setString(5, word.getExampleSentence());
+        stmt.setLong(6, word.getCreatedAt());
+        stmt.setLong(7, word.getLastReviewTime());
+        stmt.setInt(8, word.getReviewCount());
+        stmt.setBoolean(9, word.isLearned());
+        stmt.setLong(10, nextDueAt(word.getLastReviewTime()));
+    }
+
+    private void bindMistake(PreparedStatement stmt, MistakeWord mistakeWord, long stamp) throws SQLException {
+        stmt.setLong(1, mistakeWord.getWordId());
+        stmt.setString(2, mistakeWord.getWord());
+        stmt.setString(3, normalizeMistakeType(mistakeWord.getMistakeType()));
+        stmt.setLong(4, mistakeWord.getAddedAt());
+        stmt.setInt(5, Math.max(1, mistakeWord.getMistakeCount()));
+        stmt.setBoolean(6, mistakeWord.isResolved());
+        stmt.setLong(7, stamp);
+    }
+
+    // 合并前这条错词的状态：null 表示还没有这一行，TRUE 表示未解决
+    private static Boolean readMistakeOpen(ConnectionManager connections, Connection connection,
+                                           MistakeWord mistakeWord) throws SQLException {
+        PreparedStatement stmt = connections.prepare(connection,
+                "SELECT is_resolved FROM mistake_words WHERE word_id = ? AND mistake_type = ?");
+        stmt.setLong(1, mistakeWord.getWordId());
+        stmt.setString(2, normalizeMistakeType(mistakeWord.getMistakeType()));
+        ResultSet rs = stmt.executeQuery();
+        Boolean open = rs.next() ? !rs.getBoolean(1) : null;
+        rs.close();
+        return open;
+    }
+
+    // 合并后未解决错词数的变化：新增或重新打开为 +1，被合并为已解决为 -1
+    private static int unresolvedDelta(Boolean wasOpen, boolean resolved) {
+        boolean before = Boolean.TRUE.equals(wasOpen);
+        boolean after = !resolved;
+        return before == after ? 0 : after ? 1 : -1;
+    }
+
+    private void applyUnresolvedDeltas(List<MistakeWord> mistakeWords, int[] deltas, long countGeneration) {
+        List<String> opened = new ArrayList<>();
+        for (int i = 0; i < deltas.length; i++) {
+            if (deltas[i] < 0) {
+                countCache.invalidateMistakes();
+                return;
+            }
+            if (deltas[i] > 0) {
+                opened.add(normalizeMistakeType(mistakeWords.get(i).getMistakeType()));
+            }
+        }
+        countCache.addMistakes(opened, countGeneration);
+    }
+
+    private long lookupMistakeId(PreparedStatement idStmt, MistakeWord mistakeWord) throws SQLException {
+        idStmt.setLong(1, mistakeWord.getWordId());
+        idStmt.setString(2, normalizeMistakeType(mistakeWord.getMistakeType()));
+        ResultSet rs = idStmt.executeQuery();
+        long id = rs.next() ? rs.getLong(1) : -1;
+        rs.close();
+        return id;
+    }
+
+    private static void compactMistakeWords(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement();
+        stmt.executeUpdate("UPDATE mistake_words SET mistake_type = '' WHERE mistake_type IS NULL");
+        stmt.executeUpdate("UPDATE mistake_words m SET " +
+                "mistake_count = (SELECT SUM(COALESCE(d.mistake_count, 1)) FROM mistake_words d " +
+                "WHERE d.word_id = m.word_id AND d.mistake_type = m.mistake_type), " +
+                "added_at = (SELECT MAX(d.added_at) FROM mistake_words d " +
+                "WHERE d.word_id = m.word_id AND d.mistake_type = m.mistake_type), " +
+                "is_resolved = (SELECT EVERY(COALESCE(d.is_resolved, FALSE)) FROM mistake_words d " +
+                "WHERE d.word_id = m.word_id AND d.mistake_type = m.mistake_type) " +
+                "WHERE m.id IN (SELECT MIN(id) FROM mistake_words GROUP BY word_id, mistake_type HAVING COUNT(*) > 1)");
+        stmt.executeUpdate("DELETE FROM mistake_words WHERE id NOT IN " +
+                "(SELECT MIN(id) FROM mistake_words GROUP BY word_id, mistake_type)");
+        stmt.close();
+    }
+
+    private static void createIndex(Connection connection, String sql) throws SQLException {
+        Statement stmt = connection.createStatement();
+        stmt.execute(sql);
+        stmt.close();
+    }
+
+    private static void readGeneratedKeys(PreparedStatement stmt, long[] ids, int start) throws SQLException {
+        ResultSet rs = stmt.getGeneratedKeys();
+        int index = start;
+        while (rs.next() && index < ids.length) {
+            ids[index++] = rs.getLong(1);
+        }
+        rs.close();
+    }
+
+    // 以下两个方法只能在持有写锁时调用（connections.write / transaction 内）
+    private long currentChangeStamp(Connection connection) throws SQLException {
+        if (lastChangeStamp < 0) {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT GREATEST(" +
+                    "COALESCE((SELECT MAX(updated_at) FROM words), 0), " +
+                    "COALESCE((SELECT MAX(updated_at) FROM mistake_words), 0))");
+            lastChangeStamp = rs.next() ? rs.getLong(1) : 0;
+            stmt.close();
+        }
+        return lastChangeStamp;
+    }
+
+    // 变更戳取当前时间，但保证严格递增，同一毫秒内的两次写入也能区分先后
+    private long nextChangeStamp(Connection connection) throws SQLException {
+        lastChangeStamp = Math.max(System.currentTimeMillis(), currentChangeStamp(connection) + 1);
+        return lastChangeStamp;
+    }
+
+    private static long nextDueAt(long lastReviewTime) {
+        return lastReviewTime <= 0 ? 0 : lastReviewTime + REVIEW_INTERVAL;
+    }
+
+    // 前缀的上界：最后一个字符加一，例如 "ab" -> "ac"；没有上界时返回 null
+    static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+
+    private static String normalizeWord(String word) {
+        return word == null ? null : word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // 没有类型的错词存成空串，(word_id, mistake_type) 唯一索引才能约束到它们
+    static String normalizeMistakeType(String mistakeType) {
+        return mistakeType == null ? "" : mistakeType;
+    }
+
+    // 打开还在进行时先等它结束再关闭；等待中的读写由 markReady 放行，下次使用时再重新打开
+    public void close() {
+        close(false);
+    }
+
+    private void close(boolean compact) {
+        ConnectionManager current;
+        while (true) {
+            CountDownLatch pendingOpen;
+            synchronized (lifecycleLock) {
+                if (!opening) {
+                    current = detachConnections();
+                    break;
+                }
+                pendingOpen = readyLatch;
+            }
+            try {
+                pendingOpen.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Log.w(TAG, "Interrupted while waiting for the database to open, not closing it");
+                return;
+            }
+        }
+        closeDetached(current, compact);
+    }
+
+    // 需要持有 lifecycleLock；取下当前连接，之后的使用者会重新打开数据库
+    private ConnectionManager detachConnections() {
+        if (pendingClose != null) {
+            pendingClose.cancel(false);
+            pendingClose = null;
+        }
+        if (compactionCheck != null) {
+            compactionCheck.cancel(false);
+            compactionCheck = null;
+        }
+        ConnectionManager current = connections;
+        connections = null;
+        ready = false;
+        return current;
+    }
+
+    private void closeDetached(ConnectionManager current, boolean compact) {
+        if (current != null) {
+            File file = new File(databaseFile + ".mv.db");
+            long sizeBefore = file.length();
+            current.close(compact);
+            closeCount.incrementAndGet();
+            if (compact) {
+                compactionRequested = false;
+                lastCompactionBytesSaved = sizeBefore - file.length();
+                compactionCount.incrementAndGet();
+                Log.d(TAG, "Compaction reclaimed " + lastCompactionBytesSaved + " bytes");
+            }
+        }
     }
-}
\ No newline at end of file
+}
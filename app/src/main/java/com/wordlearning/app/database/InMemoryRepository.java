@@ -0,0 +1,389 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 纯内存的存储实现，进程退出即丢失，只用于测试和与其他实现做对比，应用里不能选用。
+ * 存取的都是对象副本，调用方修改返回的 Word 不会影响已保存的数据。
+ */
+public class InMemoryRepository implements WordRepository, MistakeRepository {
+    private static final Comparator<Word> NEWEST_FIRST = (a, b) -> {
+        int byTime = Long.compare(b.getCreatedAt(), a.getCreatedAt());
+        return byTime != 0 ? byTime : Long.compare(b.getId(), a.getId());
+    };
+
+    private final Map<Long, Word> words = new LinkedHashMap<>();
+    private final Map<String, List<Word>> wordsByText = new HashMap<>();
+    private final Map<String, MistakeWord> mistakes = new LinkedHashMap<>();
+    private final WordSampler wordSampler = new WordSampler();
+    private long nextWordId = 1;
+    private long nextMistakeId = 1;
+
+    @Override
+    public synchronized long insertWord(Word word) {
+        Word copy = copyOf(word);
+        copy.setId(nextWordId++);
+        words.put(copy.getId(), copy);
+        List<Word> sameText = wordsByText.get(normalizeWord(copy.getWord()));
+        if (sameText == null) {
+            sameText = new ArrayList<>();
+            wordsByText.put(normalizeWord(copy.getWord()), sameText);
+        }
+        sameText.add(copy);
+        wordSampler.onWordInserted(copy.getId(), copy.isLearned());
+        return copy.getId();
+    }
+
+    @Override
+    public synchronized long[] insertWords(List<Word> words) {
+        long[] ids = new long[words.size()];
+        for (int i = 0; i < words.size(); i++) {
+            ids[i] = insertWord(words.get(i));
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized void updateWord(Word word) {
+        Word stored = words.get(word.getId());
+        if (stored == null) {
+            return;
+        }
+        stored.setPronunciation(word.getPronunciation());
+        stored.setMeaning(word.getMeaning());
+        stored.setExampleSentence(word.getExampleSentence());
+        stored.setLastReviewTime(word.getLastReviewTime());
+        stored.setReviewCount(word.getReviewCount());
+        stored.setLearned(word.isLearned());
+        wordSampler.onWordUpdated(word.getId(), word.isLearned());
+    }
+
+    @Override
+    public synchronized int updateWords(List<Word> words) {
+        int updated = 0;
+        for (Word word : words) {
+            if (this.words.containsKey(word.getId())) {
+                updateWord(word);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public synchronized Word getWordById(long id) {
+        Word word = words.get(id);
+        return word == null ? null : copyOf(word);
+    }
+
+    @Override
+    public synchronized Word findWordByText(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<Word> sameText = wordsByText.get(normalizeWord(text));
+        if (sameText == null || sameText.isEmpty()) {
+            return null;
+        }
+        Word newest = sameText.get(0);
+        for (Word word : sameText) {
+            if (word.getCreatedAt() > newest.getCreatedAt()) {
+                newest = word;
+            }
+        }
+        return copyOf(newest);
+    }
+
+    @Override
+    public synchronized List<Word> getAllWords() {
+        List<Word> result = new ArrayList<>();
+        for (Word word : sortedWords()) {
+            result.add(copyOf(word));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Word> getWordsPage(Word after, int limit) {
+        List<Word> result = new ArrayList<>();
+        for (Word word : sortedWords()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (after == null || NEWEST_FIRST.compare(word, after) > 0) {
+                result.add(copyOf(word));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Word> getRandomWords(int count) {
+        List<Word> result = new ArrayList<>();
+        if (count <= 0) {
+            return result;
+        }
+        try {
+            for (Long id : wordSampler.sample(sink -> {
+                for (Word word : words.values()) {
+                    sink.add(word.getId(), word.isLearned());
+                }
+            }, count)) {
+                Word word = words.get(id);
+                if (word != null) {
+                    result.add(copyOf(word));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Word> getDueWords(long now, int limit) {
+        List<Word> due = new ArrayList<>();
+        for (Word word : words.values()) {
+            if (nextDueAt(word) <= now) {
+                due.add(word);
+            }
+        }
+        due.sort((a, b) -> {
+            int byDue = Long.compare(nextDueAt(a), nextDueAt(b));
+            return byDue != 0 ? byDue : Long.compare(a.getId(), b.getId());
+        });
+        List<Word> result = new ArrayList<>();
+        for (int i = 0; i < due.size() && i < limit; i++) {
+            result.add(copyOf(due.get(i)));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized long countWords() {
+        return words.size();
+    }
+
+    @Override
+    public synchronized List<Word> searchByPrefix(String prefix, Word after, int limit) {
+        List<Word> matches = new ArrayList<>();
+        String lower = normalizeWord(prefix);
+        if (lower == null || lower.isEmpty() || limit <= 0) {
+            return matches;
+        }
+        for (Word word : words.values()) {
+            if (normalizeWord(word.getWord()).startsWith(lower)) {
+                matches.add(word);
+            }
+        }
+        Comparator<Word> byText = (a, b) -> {
+            int byWord = normalizeWord(a.getWord()).compareTo(normalizeWord(b.getWord()));
+            return byWord != 0 ? byWord : Long.compare(a.getId(), b.getId());
+        };
+        matches.sort(byText);
+        List<Word> result = new ArrayList<>();
+        for (Word word : matches) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (after == null || byText.compare(word, after) > 0) {
+                result.add(copyOf(word));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Word> searchByText(String query, long beforeId, int limit) {
+        List<Word> result = new ArrayList<>();
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return result;
+        }
+        List<Word> newestFirst = new ArrayList<>(words.values());
+        newestFirst.sort((a, b) -> Long.compare(b.getId(), a.getId()));
+        for (Word word : newestFirst) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if ((beforeId <= 0 || word.getId() < beforeId)
+                    && SearchIndex.matches(query, word.getMeaning(), word.getExampleSentence())) {
+                result.add(copyOf(word));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void recordMistake(MistakeWord mistakeWord) {
+        upsertMistake(mistakeWord);
+    }
+
+    @Override
+    public synchronized long[] insertMistakeWords(List<MistakeWord> mistakeWords) {
+        long[] ids = new long[mistakeWords.size()];
+        for (int i = 0; i < mistakeWords.size(); i++) {
+            ids[i] = upsertMistake(mistakeWords.get(i));
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized List<MistakeWord> getAllMistakeWords() {
+        List<MistakeWord> result = new ArrayList<>();
+        for (MistakeWord mistakeWord : mistakes.values()) {
+            if (!mistakeWord.isResolved()) {
+                result.add(copyOf(mistakeWord));
+            }
+        }
+        result.sort((a, b) -> Long.compare(b.getAddedAt(), a.getAddedAt()));
+        return result;
+    }
+
+    @Override
+    public synchronized void resolveMistakeWord(long wordId) {
+        for (MistakeWord mistakeWord : mistakes.values()) {
+            if (mistakeWord.getWordId() == wordId) {
+                mistakeWord.setResolved(true);
+            }
+        }
+    }
+
+    @Override
+    public synchronized int resolveAllMistakes() {
+        int resolved = 0;
+        for (MistakeWord mistakeWord : mistakes.values()) {
+            if (!mistakeWord.isResolved()) {
+                mistakeWord.setResolved(true);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public synchronized int resolveMistakesByType(String mistakeType) {
+        String type = DatabaseHelper.normalizeMistakeType(mistakeType);
+        int resolved = 0;
+        for (MistakeWord mistakeWord : mistakes.values()) {
+            if (!mistakeWord.isResolved() && type.equals(mistakeWord.getMistakeType())) {
+                mistakeWord.setResolved(true);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public synchronized int resolveMistakesForWords(Collection<Long> wordIds) {
+        if (wordIds == null || wordIds.isEmpty()) {
+            return 0;
+        }
+        int resolved = 0;
+        for (MistakeWord mistakeWord : mistakes.values()) {
+            if (!mistakeWord.isResolved() && wordIds.contains(mistakeWord.getWordId())) {
+                mistakeWord.setResolved(true);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public synchronized long countUnresolvedMistakes() {
+        long count = 0;
+        for (MistakeWord mistakeWord : mistakes.values()) {
+            if (!mistakeWord.isResolved()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized long countUnresolvedMistakesByType(String mistakeType) {
+        Long count = getUnresolvedMistakeCountsByType().get(DatabaseHelper.normalizeMistakeType(mistakeType));
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getUnresolvedMistakeCountsByType() {
+        Map<String, Long> counts = new HashMap<>();
+        for (MistakeWord mistakeWord : mistakes.values()) {
+            if (!mistakeWord.isResolved()) {
+                Long current = counts.get(mistakeWord.getMistakeType());
+                counts.put(mistakeWord.getMistakeType(), current == null ? 1 : current + 1);
+            }
+        }
+        return counts;
+    }
+
+    private long upsertMistake(MistakeWord mistakeWord) {
+        // 与数据库实现一致，没有类型的错词存成空串
+        String mistakeType = DatabaseHelper.normalizeMistakeType(mistakeWord.getMistakeType());
+        String key = mistakeWord.getWordId() + ":" + mistakeType;
+        MistakeWord stored = mistakes.get(key);
+        if (stored == null) {
+            stored = copyOf(mistakeWord);
+            stored.setId(nextMistakeId++);
+            stored.setMistakeType(mistakeType);
+            stored.setMistakeCount(Math.max(1, mistakeWord.getMistakeCount()));
+            mistakes.put(key, stored);
+        } else {
+            stored.setMistakeCount(stored.getMistakeCount() + Math.max(1, mistakeWord.getMistakeCount()));
+            stored.setAddedAt(mistakeWord.getAddedAt());
+            stored.setResolved(mistakeWord.isResolved());
+        }
+        return stored.getId();
+    }
+
+    private List<Word> sortedWords() {
+        List<Word> sorted = new ArrayList<>(words.values());
+        sorted.sort(NEWEST_FIRST);
+        return sorted;
+    }
+
+    private static long nextDueAt(Word word) {
+        return word.getLastReviewTime() <= 0 ? 0 : word.getLastReviewTime() + DatabaseHelper.REVIEW_INTERVAL;
+    }
+
+    private static String normalizeWord(String word) {
+        return word == null ? null : word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Word copyOf(Word word) {
+        Word copy = new Word();
+        copy.setId(word.getId());
+        copy.setWord(word.getWord());
+        copy.setPronunciation(word.getPronunciation());
+        copy.setMeaning(word.getMeaning());
+        copy.setExampleSentence(word.getExampleSentence());
+        copy.setCreatedAt(word.getCreatedAt());
+        copy.setLastReviewTime(word.getLastReviewTime());
+        copy.setReviewCount(word.getReviewCount());
+        copy.setLearned(word.isLearned());
+        return copy;
+    }
+
+    private static MistakeWord copyOf(MistakeWord mistakeWord) {
+        MistakeWord copy = new MistakeWord();
+        copy.setId(mistakeWord.getId());
+        copy.setWordId(mistakeWord.getWordId());
+        copy.setWord(mistakeWord.getWord());
+        copy.setMistakeType(mistakeWord.getMistakeType());
+        copy.setAddedAt(mistakeWord.getAddedAt());
+        copy.setMistakeCount(mistakeWord.getMistakeCount());
+        copy.setResolved(mistakeWord.isResolved());
+        return copy;
+    }
+}
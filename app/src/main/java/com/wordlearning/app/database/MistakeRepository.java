@@ -0,0 +1,32 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.MistakeWord;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 错词本存储接口，(word_id, mistake_type) 唯一，重复记录时累加次数。
+ */
+public interface MistakeRepository {
+    void recordMistake(MistakeWord mistakeWord);
+
+    long[] insertMistakeWords(List<MistakeWord> mistakeWords);
+
+    List<MistakeWord> getAllMistakeWords();
+
+    void resolveMistakeWord(long wordId);
+
+    int resolveAllMistakes();
+
+    int resolveMistakesByType(String mistakeType);
+
+    int resolveMistakesForWords(Collection<Long> wordIds);
+
+    long countUnresolvedMistakes();
+
+    long countUnresolvedMistakesByType(String mistakeType);
+
+    Map<String, Long> getUnresolvedMistakeCountsByType();
+}
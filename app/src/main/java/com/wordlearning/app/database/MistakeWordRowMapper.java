@@ -0,0 +1,52 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.MistakeWord;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * mistake_words 行映射，列序号在每个结果集上只解析一次。
+ */
+class MistakeWordRowMapper {
+    private final int id;
+    private final int wordId;
+    private final int word;
+    private final int mistakeType;
+    private final int addedAt;
+    private final int mistakeCount;
+    private final int isResolved;
+
+    private MistakeWordRowMapper(ResultSet rs) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.wordId = rs.findColumn("word_id");
+        this.word = rs.findColumn("word");
+        this.mistakeType = rs.findColumn("mistake_type");
+        this.addedAt = rs.findColumn("added_at");
+        this.mistakeCount = rs.findColumn("mistake_count");
+        this.isResolved = rs.findColumn("is_resolved");
+    }
+
+    static List<MistakeWord> readAll(ResultSet rs) throws SQLException {
+        List<MistakeWord> mistakeWords = new ArrayList<>();
+        MistakeWordRowMapper mapper = new MistakeWordRowMapper(rs);
+        while (rs.next()) {
+            mistakeWords.add(mapper.map(rs));
+        }
+        return mistakeWords;
+    }
+
+    MistakeWord map(ResultSet rs) throws SQLException {
+        MistakeWord mistakeWord = new MistakeWord();
+        mistakeWord.setId(rs.getLong(id));
+        mistakeWord.setWordId(rs.getLong(wordId));
+        mistakeWord.setWord(rs.getString(word));
+        mistakeWord.setMistakeType(rs.getString(mistakeType));
+        mistakeWord.setAddedAt(rs.getLong(addedAt));
+        mistakeWord.setMistakeCount(rs.getInt(mistakeCount));
+        mistakeWord.setResolved(rs.getBoolean(isResolved));
+        return mistakeWord;
+    }
+}
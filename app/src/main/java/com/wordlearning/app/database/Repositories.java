@@ -0,0 +1,108 @@
+package com.wordlearning.app.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Locale;
+
+/**
+ * 启动时按设置选择存储实现。设置项 storage_backend 取 h2 / sqlite，默认 h2；
+ * 同一进程内只创建一次，修改设置后需要重启应用才会切换。
+ * 内存实现进程退出就丢数据，不在可选之列，只供测试直接创建。
+ */
+public final class Repositories {
+    public enum Backend {
+        H2, SQLITE;
+
+        static Backend parse(String value) {
+            if (value != null) {
+                for (Backend backend : values()) {
+                    if (backend.name().equalsIgnoreCase(value.trim())) {
+                        return backend;
+                    }
+                }
+            }
+            return H2;
+        }
+    }
+
+    private static final String PREFS_NAME = "AppSettings";
+    public static final String KEY_STORAGE_BACKEND = "storage_backend";
+
+    private static Backend backend;
+    private static WordRepository wordRepository;
+    private static MistakeRepository mistakeRepository;
+
+    private Repositories() {
+    }
+
+    public static synchronized Backend getBackend(Context context) {
+        if (backend == null) {
+            SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            backend = Backend.parse(prefs.getString(KEY_STORAGE_BACKEND, Backend.H2.name()));
+        }
+        return backend;
+    }
+
+    public static void setBackend(Context context, Backend backend) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putString(KEY_STORAGE_BACKEND, backend.name().toLowerCase(Locale.ROOT))
+                .apply();
+    }
+
+    public static synchronized WordRepository getWordRepository(Context context) {
+        if (wordRepository == null) {
+            create(context);
+        }
+        return wordRepository;
+    }
+
+    public static synchronized MistakeRepository getMistakeRepository(Context context) {
+        if (mistakeRepository == null) {
+            create(context);
+        }
+        return mistakeRepository;
+    }
+
+    // 只有 H2 需要引用计数和异步打开，其他实现由系统或进程自行管理生命周期
+    public static void acquire(Context context) {
+        if (getBackend(context) == Backend.H2) {
+            DatabaseHelper.acquire(context);
+        }
+    }
+
+    public static void release(Context context) {
+        if (getBackend(context) == Backend.H2) {
+            DatabaseHelper.getInstance(context).release();
+        }
+    }
+
+    public static boolean isReady(Context context) {
+        return getBackend(context) != Backend.H2 || DatabaseHelper.getInstance(context).isReady();
+    }
+
+    public static void whenReady(Context context, DatabaseHelper.ReadyCallback callback) {
+        if (getBackend(context) == Backend.H2) {
+            DatabaseHelper.getInstance(context).whenReady(callback);
+        } else {
+            new Handler(Looper.getMainLooper()).post(callback::onDatabaseReady);
+        }
+    }
+
+    private static void create(Context context) {
+        switch (getBackend(context)) {
+            case SQLITE:
+                SQLiteRepository sqlite = SQLiteRepository.getInstance(context);
+                wordRepository = sqlite;
+                mistakeRepository = sqlite;
+                break;
+            default:
+                DatabaseHelper h2 = DatabaseHelper.getInstance(context);
+                wordRepository = h2;
+                mistakeRepository = h2;
+                break;
+        }
+    }
+}
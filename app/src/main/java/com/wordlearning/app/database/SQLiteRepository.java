@@ -0,0 +1,666 @@
+package com.wordlearning.app.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 基于 Android 自带 SQLite 的存储实现，表结构与 H2 版本保持一致。
+ * 开启 WAL，读操作不会被写事务阻塞；SQLiteDatabase 自身是线程安全的，这里不再额外加锁。
+ */
+public class SQLiteRepository extends SQLiteOpenHelper implements WordRepository, MistakeRepository {
+    private static final String DATABASE_NAME = "word_learning.sqlite";
+    private static final int DATABASE_VERSION = 1;
+    private static final String WORD_COLUMNS = "id, word, pronunciation, meaning, example_sentence, " +
+            "created_at, last_review_time, review_count, is_learned";
+    private static final String MISTAKE_COLUMNS = "id, word_id, word, mistake_type, added_at, mistake_count, is_resolved";
+    private static final String INSERT_WORD_SQL = "INSERT INTO words (word, word_lower, pronunciation, meaning, example_sentence, " +
+            "created_at, last_review_time, review_count, is_learned, next_due_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_WORD_SQL = "UPDATE words SET pronunciation = ?, meaning = ?, example_sentence = ?, " +
+            "last_review_time = ?, review_count = ?, is_learned = ?, next_due_at = ? WHERE id = ?";
+    // 低版本系统自带的 SQLite 不支持 UPSERT，先按唯一键累加，没有命中再插入
+    private static final String UPDATE_MISTAKE_SQL = "UPDATE mistake_words SET mistake_count = mistake_count + ?, " +
+            "added_at = ?, is_resolved = ? WHERE word_id = ? AND mistake_type = ?";
+    private static final String INSERT_MISTAKE_SQL = "INSERT INTO mistake_words " +
+            "(word_id, word, mistake_type, added_at, mistake_count, is_resolved) VALUES (?, ?, ?, ?, ?, ?)";
+    private static SQLiteRepository instance;
+    private final WordSampler wordSampler = new WordSampler();
+    private final CountCache countCache = new CountCache();
+    private final SearchIndex searchIndex = new SearchIndex();
+
+    private SQLiteRepository(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    // 仪器测试用单独的数据库文件，不动应用自己的数据
+    SQLiteRepository(Context context, String name) {
+        super(context.getApplicationContext(), name, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    public static synchronized SQLiteRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SQLiteRepository(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS words (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "word TEXT NOT NULL, " +
+                "word_lower TEXT, " +
+                "pronunciation TEXT, " +
+                "meaning TEXT, " +
+                "example_sentence TEXT, " +
+                "created_at INTEGER, " +
+                "last_review_time INTEGER, " +
+                "review_count INTEGER DEFAULT 0, " +
+                "is_learned INTEGER DEFAULT 0, " +
+                "next_due_at INTEGER DEFAULT 0)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_words_word_lower ON words(word_lower)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_words_next_due_at ON words(next_due_at, id)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_words_created_at ON words(created_at, id)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS mistake_words (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "word_id INTEGER, " +
+                "word TEXT NOT NULL, " +
+                "mistake_type TEXT NOT NULL DEFAULT '', " +
+                "added_at INTEGER, " +
+                "mistake_count INTEGER DEFAULT 1, " +
+                "is_resolved INTEGER DEFAULT 0)");
+        // 唯一索引不约束 NULL，没有类型的错词和 H2 一样存成空串
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS uk_mistake_words_word_type ON mistake_words(word_id, mistake_type)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        onCreate(db);
+    }
+
+    @Override
+    public long insertWord(Word word) {
+        long countGeneration = countCache.wordGeneration();
+        try {
+            SQLiteStatement stmt = getWritableDatabase().compileStatement(INSERT_WORD_SQL);
+            bindWordInsert(stmt, word);
+            long id = stmt.executeInsert();
+            stmt.close();
+            if (id >= 0) {
+                wordSampler.onWordInserted(id, word.isLearned());
+                searchIndex.onWordInserted(id, word.getMeaning(), word.getExampleSentence());
+                countCache.addWords(1, countGeneration);
+            }
+            return id;
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public long[] insertWords(List<Word> words) {
+        long[] ids = new long[words.size()];
+        Arrays.fill(ids, -1);
+        if (words.isEmpty()) {
+            return ids;
+        }
+        long countGeneration = countCache.wordGeneration();
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SQLiteStatement stmt = db.compileStatement(INSERT_WORD_SQL);
+            for (int i = 0; i < words.size(); i++) {
+                stmt.clearBindings();
+                bindWordInsert(stmt, words.get(i));
+                ids[i] = stmt.executeInsert();
+            }
+            stmt.close();
+            db.setTransactionSuccessful();
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+            Arrays.fill(ids, -1);
+        } finally {
+            db.endTransaction();
+        }
+        if (ids[0] >= 0) {
+            for (int i = 0; i < ids.length; i++) {
+                wordSampler.onWordInserted(ids[i], words.get(i).isLearned());
+                searchIndex.onWordInserted(ids[i], words.get(i).getMeaning(), words.get(i).getExampleSentence());
+            }
+            countCache.addWords(words.size(), countGeneration);
+        }
+        return ids;
+    }
+
+    @Override
+    public void updateWord(Word word) {
+        try {
+            SQLiteStatement stmt = getWritableDatabase().compileStatement(UPDATE_WORD_SQL);
+            bindWordUpdate(stmt, word);
+            stmt.executeUpdateDelete();
+            stmt.close();
+            wordSampler.onWordUpdated(word.getId(), word.isLearned());
+            searchIndex.onWordUpdated(word.getId(), word.getMeaning(), word.getExampleSentence());
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public int updateWords(List<Word> words) {
+        if (words.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SQLiteStatement stmt = db.compileStatement(UPDATE_WORD_SQL);
+            for (Word word : words) {
+                stmt.clearBindings();
+                bindWordUpdate(stmt, word);
+                updated += stmt.executeUpdateDelete();
+            }
+            stmt.close();
+            db.setTransactionSuccessful();
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+            return -1;
+        } finally {
+            db.endTransaction();
+        }
+        for (Word word : words) {
+            wordSampler.onWordUpdated(word.getId(), word.isLearned());
+            searchIndex.onWordUpdated(word.getId(), word.getMeaning(), word.getExampleSentence());
+        }
+        return updated;
+    }
+
+    @Override
+    public Word getWordById(long id) {
+        List<Word> words = queryWords("SELECT " + WORD_COLUMNS + " FROM words WHERE id = ?", String.valueOf(id));
+        return words.isEmpty() ? null : words.get(0);
+    }
+
+    @Override
+    public Word findWordByText(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<Word> words = queryWords("SELECT " + WORD_COLUMNS + " FROM words WHERE word_lower = ? " +
+                "ORDER BY created_at DESC LIMIT 1", normalizeWord(text));
+        return words.isEmpty() ? null : words.get(0);
+    }
+
+    @Override
+    public List<Word> getAllWords() {
+        return queryWords("SELECT " + WORD_COLUMNS + " FROM words ORDER BY created_at DESC");
+    }
+
+    @Override
+    public List<Word> getWordsPage(Word after, int limit) {
+        if (after == null) {
+            return queryWords("SELECT " + WORD_COLUMNS + " FROM words ORDER BY created_at DESC, id DESC LIMIT ?",
+                    String.valueOf(limit));
+        }
+        // 系统自带的旧版 SQLite 不支持行值比较，展开成等价的 OR 条件
+        return queryWords("SELECT " + WORD_COLUMNS + " FROM words WHERE created_at < ? OR (created_at = ? AND id < ?) " +
+                        "ORDER BY created_at DESC, id DESC LIMIT ?",
+                String.valueOf(after.getCreatedAt()), String.valueOf(after.getCreatedAt()),
+                String.valueOf(after.getId()), String.valueOf(limit));
+    }
+
+    @Override
+    public List<Word> getRandomWords(int count) {
+        List<Word> words = new ArrayList<>();
+        if (count <= 0) {
+            return words;
+        }
+        try {
+            SQLiteDatabase db = getReadableDatabase();
+            List<Long> ids = wordSampler.sample(sink -> {
+                Cursor cursor = db.rawQuery("SELECT id, is_learned FROM words", null);
+                while (cursor.moveToNext()) {
+                    sink.add(cursor.getLong(0), cursor.getInt(1) != 0);
+                }
+                cursor.close();
+            }, count);
+            if (ids.isEmpty()) {
+                return words;
+            }
+
+            StringBuilder sql = new StringBuilder("SELECT " + WORD_COLUMNS + " FROM words WHERE id IN (");
+            String[] args = new String[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                args[i] = String.valueOf(ids.get(i));
+            }
+            sql.append(")");
+
+            Map<Long, Word> byId = new HashMap<>();
+            for (Word word : queryWords(sql.toString(), args)) {
+                byId.put(word.getId(), word);
+            }
+            for (Long id : ids) {
+                Word word = byId.get(id);
+                if (word != null) {
+                    words.add(word);
+                }
+            }
+        } catch (java.sql.SQLException | SQLiteException e) {
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    @Override
+    public List<Word> getDueWords(long now, int limit) {
+        return queryWords("SELECT " + WORD_COLUMNS + " FROM words WHERE next_due_at <= ? " +
+                "ORDER BY next_due_at ASC, id ASC LIMIT ?", String.valueOf(now), String.valueOf(limit));
+    }
+
+    @Override
+    public long countWords() {
+        long cached = countCache.getWordCount();
+        if (CountCache.isKnown(cached)) {
+            return cached;
+        }
+        // 查询期间有写入时结果可能已经过期，只返回不缓存
+        long generation = countCache.wordGeneration();
+        long count = queryCount("SELECT COUNT(*) FROM words");
+        if (CountCache.isKnown(count)) {
+            countCache.setWordCount(count, generation);
+        }
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public List<Word> searchByPrefix(String prefix, Word after, int limit) {
+        String lower = normalizeWord(prefix);
+        if (lower == null || lower.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // SQLite 的 LIKE 不区分大小写且默认不走索引，改写成 word_lower 上的范围条件
+        String upper = DatabaseHelper.prefixUpperBound(lower);
+        List<String> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + WORD_COLUMNS + " FROM words WHERE word_lower >= ?");
+        args.add(lower);
+        if (upper != null) {
+            sql.append(" AND word_lower < ?");
+            args.add(upper);
+        }
+        if (after != null) {
+            String afterLower = normalizeWord(after.getWord());
+            sql.append(" AND (word_lower > ? OR (word_lower = ? AND id > ?))");
+            args.add(afterLower);
+            args.add(afterLower);
+            args.add(String.valueOf(after.getId()));
+        }
+        sql.append(" ORDER BY word_lower ASC, id ASC LIMIT ?");
+        args.add(String.valueOf(limit));
+        return queryWords(sql.toString(), args.toArray(new String[0]));
+    }
+
+    @Override
+    public List<Word> searchByText(String query, long beforeId, int limit) {
+        List<Word> words = new ArrayList<>();
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return words;
+        }
+        try {
+            SQLiteDatabase db = getReadableDatabase();
+            searchIndex.ensureLoaded(sink -> {
+                Cursor cursor = db.rawQuery("SELECT id, meaning, example_sentence FROM words", null);
+                while (cursor.moveToNext()) {
+                    sink.add(cursor.getLong(0), cursor.getString(1), cursor.getString(2));
+                }
+                cursor.close();
+            });
+
+            long position = beforeId;
+            while (words.size() < limit) {
+                List<Long> ids = searchIndex.candidates(query, position, limit - words.size());
+                if (ids.isEmpty()) {
+                    break;
+                }
+                StringBuilder sql = new StringBuilder("SELECT " + WORD_COLUMNS + " FROM words WHERE id IN (");
+                String[] args = new String[ids.size()];
+                for (int i = 0; i < ids.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                    args[i] = String.valueOf(ids.get(i));
+                }
+                sql.append(")");
+
+                Map<Long, Word> byId = new HashMap<>();
+                for (Word word : queryWords(sql.toString(), args)) {
+                    byId.put(word.getId(), word);
+                }
+                for (Long id : ids) {
+                    Word word = byId.get(id);
+                    if (word != null && SearchIndex.matches(query, word.getMeaning(), word.getExampleSentence())) {
+                        words.add(word);
+                    }
+                }
+                position = ids.get(ids.size() - 1);
+            }
+        } catch (java.sql.SQLException | SQLiteException e) {
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    @Override
+    public void recordMistake(MistakeWord mistakeWord) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            upsertMistake(db, mistakeWord);
+            db.setTransactionSuccessful();
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        } finally {
+            db.endTransaction();
+        }
+        countCache.invalidateMistakes();
+    }
+
+    @Override
+    public long[] insertMistakeWords(List<MistakeWord> mistakeWords) {
+        long[] ids = new long[mistakeWords.size()];
+        Arrays.fill(ids, -1);
+        if (mistakeWords.isEmpty()) {
+            return ids;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < mistakeWords.size(); i++) {
+                ids[i] = upsertMistake(db, mistakeWords.get(i));
+            }
+            db.setTransactionSuccessful();
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+            Arrays.fill(ids, -1);
+        } finally {
+            db.endTransaction();
+        }
+        countCache.invalidateMistakes();
+        return ids;
+    }
+
+    @Override
+    public List<MistakeWord> getAllMistakeWords() {
+        List<MistakeWord> mistakeWords = new ArrayList<>();
+        try {
+            Cursor cursor = getReadableDatabase().rawQuery("SELECT " + MISTAKE_COLUMNS +
+                    " FROM mistake_words WHERE is_resolved = 0 ORDER BY added_at DESC", null);
+            while (cursor.moveToNext()) {
+                MistakeWord mistakeWord = new MistakeWord();
+                mistakeWord.setId(cursor.getLong(0));
+                mistakeWord.setWordId(cursor.getLong(1));
+                mistakeWord.setWord(cursor.getString(2));
+                mistakeWord.setMistakeType(cursor.getString(3));
+                mistakeWord.setAddedAt(cursor.getLong(4));
+                mistakeWord.setMistakeCount(cursor.getInt(5));
+                mistakeWord.setResolved(cursor.getInt(6) != 0);
+                mistakeWords.add(mistakeWord);
+            }
+            cursor.close();
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+        return mistakeWords;
+    }
+
+    @Override
+    public void resolveMistakeWord(long wordId) {
+        long countGeneration = countCache.mistakeGeneration();
+        countCache.resolveMistakes(resolveMistakes("word_id = ?", String.valueOf(wordId)), countGeneration);
+    }
+
+    @Override
+    public int resolveAllMistakes() {
+        long countGeneration = countCache.mistakeGeneration();
+        int updated = executeUpdate("UPDATE mistake_words SET is_resolved = 1 WHERE is_resolved = 0");
+        if (updated >= 0) {
+            countCache.resolveAllMistakes(countGeneration);
+        }
+        return Math.max(updated, 0);
+    }
+
+    @Override
+    public int resolveMistakesByType(String mistakeType) {
+        long countGeneration = countCache.mistakeGeneration();
+        Map<String, Long> resolved = resolveMistakes("mistake_type = ?", DatabaseHelper.normalizeMistakeType(mistakeType));
+        countCache.resolveMistakes(resolved, countGeneration);
+        return DatabaseHelper.total(resolved);
+    }
+
+    @Override
+    public int resolveMistakesForWords(Collection<Long> wordIds) {
+        if (wordIds == null || wordIds.isEmpty()) {
+            return 0;
+        }
+        StringBuilder condition = new StringBuilder("word_id IN (");
+        String[] args = new String[wordIds.size()];
+        int i = 0;
+        for (Long wordId : wordIds) {
+            condition.append(i == 0 ? "?" : ", ?");
+            args[i++] = String.valueOf(wordId);
+        }
+        condition.append(")");
+        long countGeneration = countCache.mistakeGeneration();
+        Map<String, Long> resolved = resolveMistakes(condition.toString(), args);
+        countCache.resolveMistakes(resolved, countGeneration);
+        return DatabaseHelper.total(resolved);
+    }
+
+    // 低版本系统自带的 SQLite 没有 RETURNING，在同一事务里先按类型统计要解决的行再更新，
+    // 计数缓存据此扣减；出错时返回空表，计数不变
+    private Map<String, Long> resolveMistakes(String condition, String... args) {
+        Map<String, Long> resolved = new HashMap<>();
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Cursor cursor = db.rawQuery("SELECT mistake_type, COUNT(*) FROM mistake_words " +
+                    "WHERE is_resolved = 0 AND " + condition + " GROUP BY mistake_type", args);
+            while (cursor.moveToNext()) {
+                resolved.put(cursor.getString(0), cursor.getLong(1));
+            }
+            cursor.close();
+            SQLiteStatement stmt = db.compileStatement("UPDATE mistake_words SET is_resolved = 1 " +
+                    "WHERE is_resolved = 0 AND " + condition);
+            for (int i = 0; i < args.length; i++) {
+                bindString(stmt, i + 1, args[i]);
+            }
+            stmt.executeUpdateDelete();
+            stmt.close();
+            db.setTransactionSuccessful();
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+            resolved.clear();
+        } finally {
+            db.endTransaction();
+        }
+        return resolved;
+    }
+
+    @Override
+    public long countUnresolvedMistakes() {
+        long cached = countCache.getUnresolvedMistakeCount();
+        if (CountCache.isKnown(cached)) {
+            return cached;
+        }
+        long generation = countCache.mistakeGeneration();
+        long count = queryCount("SELECT COUNT(*) FROM mistake_words WHERE is_resolved = 0");
+        if (CountCache.isKnown(count)) {
+            countCache.setUnresolvedMistakeCount(count, generation);
+        }
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public long countUnresolvedMistakesByType(String mistakeType) {
+        Long count = getUnresolvedMistakeCountsByType().get(DatabaseHelper.normalizeMistakeType(mistakeType));
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public Map<String, Long> getUnresolvedMistakeCountsByType() {
+        Map<String, Long> cached = countCache.getUnresolvedByType();
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        long generation = countCache.mistakeGeneration();
+        try {
+            Cursor cursor = getReadableDatabase().rawQuery("SELECT mistake_type, COUNT(*) FROM mistake_words " +
+                    "WHERE is_resolved = 0 GROUP BY mistake_type", null);
+            while (cursor.moveToNext()) {
+                counts.put(cursor.getString(0), cursor.getLong(1));
+            }
+            cursor.close();
+            countCache.setUnresolvedByType(counts, generation);
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
+    private long upsertMistake(SQLiteDatabase db, MistakeWord mistakeWord) {
+        String mistakeType = DatabaseHelper.normalizeMistakeType(mistakeWord.getMistakeType());
+        SQLiteStatement update = db.compileStatement(UPDATE_MISTAKE_SQL);
+        update.bindLong(1, Math.max(1, mistakeWord.getMistakeCount()));
+        update.bindLong(2, mistakeWord.getAddedAt());
+        update.bindLong(3, mistakeWord.isResolved() ? 1 : 0);
+        update.bindLong(4, mistakeWord.getWordId());
+        update.bindString(5, mistakeType);
+        int updated = update.executeUpdateDelete();
+        update.close();
+        if (updated == 0) {
+            SQLiteStatement insert = db.compileStatement(INSERT_MISTAKE_SQL);
+            insert.bindLong(1, mistakeWord.getWordId());
+            bindString(insert, 2, mistakeWord.getWord());
+            insert.bindString(3, mistakeType);
+            insert.bindLong(4, mistakeWord.getAddedAt());
+            insert.bindLong(5, Math.max(1, mistakeWord.getMistakeCount()));
+            insert.bindLong(6, mistakeWord.isResolved() ? 1 : 0);
+            long id = insert.executeInsert();
+            insert.close();
+            return id;
+        }
+        Cursor cursor = db.rawQuery("SELECT id FROM mistake_words WHERE word_id = ? AND mistake_type = ?",
+                new String[]{String.valueOf(mistakeWord.getWordId()), mistakeType});
+        long id = cursor.moveToNext() ? cursor.getLong(0) : -1;
+        cursor.close();
+        return id;
+    }
+
+    private List<Word> queryWords(String sql, String... args) {
+        List<Word> words = new ArrayList<>();
+        try {
+            Cursor cursor = getReadableDatabase().rawQuery(sql, args);
+            while (cursor.moveToNext()) {
+                Word word = new Word();
+                word.setId(cursor.getLong(0));
+                word.setWord(cursor.getString(1));
+                word.setPronunciation(cursor.getString(2));
+                word.setMeaning(cursor.getString(3));
+                word.setExampleSentence(cursor.getString(4));
+                word.setCreatedAt(cursor.getLong(5));
+                word.setLastReviewTime(cursor.getLong(6));
+                word.setReviewCount(cursor.getInt(7));
+                word.setLearned(cursor.getInt(8) != 0);
+                words.add(word);
+            }
+            cursor.close();
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    private long queryCount(String sql) {
+        try {
+            Cursor cursor = getReadableDatabase().rawQuery(sql, null);
+            long count = cursor.moveToNext() ? cursor.getLong(0) : 0;
+            cursor.close();
+            return count;
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private int executeUpdate(String sql, String... args) {
+        try {
+            SQLiteStatement stmt = getWritableDatabase().compileStatement(sql);
+            for (int i = 0; i < args.length; i++) {
+                bindString(stmt, i + 1, args[i]);
+            }
+            int updated = stmt.executeUpdateDelete();
+            stmt.close();
+            return updated;
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private static void bindWordInsert(SQLiteStatement stmt, Word word) {
+        bindString(stmt, 1, word.getWord());
+        bindString(stmt, 2, normalizeWord(word.getWord()));
+        bindString(stmt, 3, word.getPronunciation());
+        bindString(stmt, 4, word.getMeaning());
+        bindString(stmt, 5, word.getExampleSentence());
+        stmt.bindLong(6, word.getCreatedAt());
+        stmt.bindLong(7, word.getLastReviewTime());
+        stmt.bindLong(8, word.getReviewCount());
+        stmt.bindLong(9, word.isLearned() ? 1 : 0);
+        stmt.bindLong(10, nextDueAt(word.getLastReviewTime()));
+    }
+
+    private static void bindWordUpdate(SQLiteStatement stmt, Word word) {
+        bindString(stmt, 1, word.getPronunciation());
+        bindString(stmt, 2, word.getMeaning());
+        bindString(stmt, 3, word.getExampleSentence());
+        stmt.bindLong(4, word.getLastReviewTime());
+        stmt.bindLong(5, word.getReviewCount());
+        stmt.bindLong(6, word.isLearned() ? 1 : 0);
+        stmt.bindLong(7, nextDueAt(word.getLastReviewTime()));
+        stmt.bindLong(8, word.getId());
+    }
+
+    private static void bindString(SQLiteStatement stmt, int index, String value) {
+        if (value == null) {
+            stmt.bindNull(index);
+        } else {
+            stmt.bindString(index, value);
+        }
+    }
+
+    private static long nextDueAt(long lastReviewTime) {
+        return lastReviewTime <= 0 ? 0 : lastReviewTime + DatabaseHelper.REVIEW_INTERVAL;
+    }
+
+    private static String normalizeWord(String word) {
+        return word == null ? null : word.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,148 @@
+package com.wordlearning.app.database;
+
+import android.util.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 按版本号顺序执行的表结构迁移。已执行的版本记录在 schema_version 表里，
+ * 结构已是最新时启动只做两次查询，不执行任何 DDL。
+ * H2 遇到 DDL 会隐式提交事务，所以每一步都要写成可重复执行的（IF NOT EXISTS、只回填 NULL 等），
+ * 中途崩溃后下次启动重跑该步即可。
+ * 在线步骤只建索引，后面的离线步骤不会依赖它们，所以启动时跳过尚未执行的在线步骤，
+ * 先把离线步骤做完；schema_version 按版本逐行记录，允许中间暂时空缺。
+ */
+class SchemaMigrator {
+    private static final String TAG = "SchemaMigrator";
+
+    interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    static class Migration {
+        final int version;
+        final String description;
+        // 在线步骤只建索引，不影响查询正确性，可以在数据库就绪后放到后台执行
+        final boolean online;
+        final Step step;
+
+        Migration(int version, String description, boolean online, Step step) {
+            this.version = version;
+            this.description = description;
+            this.online = online;
+            this.step = step;
+        }
+    }
+
+    private final List<Migration> migrations = new ArrayList<>();
+
+    SchemaMigrator add(int version, String description, Step step) {
+        return add(new Migration(version, description, false, step));
+    }
+
+    SchemaMigrator addOnline(int version, String description, Step step) {
+        return add(new Migration(version, description, true, step));
+    }
+
+    private SchemaMigrator add(Migration migration) {
+        if (!migrations.isEmpty() && migrations.get(migrations.size() - 1).version >= migration.version) {
+            throw new IllegalArgumentException("Migrations must be added in increasing version order: " + migration.version);
+        }
+        migrations.add(migration);
+        return this;
+    }
+
+    int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+    }
+
+    // 当前版本：从头数起连续执行过的最后一步
+    int getCurrentVersion(ConnectionManager connections) throws SQLException {
+        Set<Integer> applied = connections.read(SchemaMigrator::readAppliedVersions);
+        int current = 0;
+        for (Migration migration : migrations) {
+            if (!applied.contains(migration.version)) {
+                break;
+            }
+            current = migration.version;
+        }
+        return current;
+    }
+
+    // 依次执行尚未应用的步骤，返回本次执行的步骤数。
+    // includeOnline 为 false 时跳过在线步骤，留给数据库就绪后的后台任务。
+    int migrate(ConnectionManager connections, boolean includeOnline) throws SQLException {
+        Set<Integer> done = connections.read(SchemaMigrator::readAppliedVersions);
+        if (done.size() >= migrations.size()) {
+            return 0;
+        }
+
+        int applied = 0;
+        for (Migration migration : migrations) {
+            if (done.contains(migration.version)) {
+                continue;
+            }
+            if (migration.online && !includeOnline) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            connections.transaction(connection -> {
+                ensureVersionTable(connection);
+                // 另一个连接可能已经执行过这一步
+                if (readAppliedVersions(connection).contains(migration.version)) {
+                    return null;
+                }
+                migration.step.apply(connection);
+                PreparedStatement stmt = connection.prepareStatement(
+                        "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)");
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.setLong(3, System.currentTimeMillis());
+                stmt.executeUpdate();
+                stmt.close();
+                return null;
+            });
+            applied++;
+            Log.d(TAG, "Applied schema v" + migration.version + " (" + migration.description + ") in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        }
+        return applied;
+    }
+
+    private static Set<Integer> readAppliedVersions(Connection connection) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        PreparedStatement exists = connection.prepareStatement(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'SCHEMA_VERSION'");
+        ResultSet rs = exists.executeQuery();
+        boolean hasTable = rs.next() && rs.getInt(1) > 0;
+        exists.close();
+        if (!hasTable) {
+            return versions;
+        }
+
+        Statement stmt = connection.createStatement();
+        rs = stmt.executeQuery("SELECT version FROM schema_version");
+        while (rs.next()) {
+            versions.add(rs.getInt(1));
+        }
+        stmt.close();
+        return versions;
+    }
+
+    private static void ensureVersionTable(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement();
+        stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INT PRIMARY KEY, " +
+                "description VARCHAR(255), " +
+                "applied_at BIGINT)");
+        stmt.close();
+    }
+}
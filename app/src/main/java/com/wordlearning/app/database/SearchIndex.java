@@ -0,0 +1,232 @@
+package com.wordlearning.app.database;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 释义和例句的内存倒排索引。
+ * 中文没有空格分词，H2 自带的全文索引按空白切词对中文无效，所以这里自己切：
+ * 连续的汉字按单字和相邻两字各出一个词元，英文和数字按整词小写后出一个词元。
+ * 和 WordSampler 一样在首次搜索时加载，之后由写路径增量维护。
+ * 单词更新时只追加新词元，不回收旧词元：候选结果总会再用原文校验，旧词元最多多读几行，
+ * 这样就不必为每个文档保存一份词元列表。
+ */
+class SearchIndex {
+    interface DocLoader {
+        void load(DocSink sink) throws SQLException;
+    }
+
+    interface DocSink {
+        void add(long id, String meaning, String exampleSentence);
+    }
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private int docCount = 0;
+    private boolean loaded = false;
+
+    synchronized void ensureLoaded(DocLoader loader) throws SQLException {
+        if (loaded) {
+            return;
+        }
+        postings.clear();
+        docCount = 0;
+        loader.load((id, meaning, exampleSentence) -> {
+            index(id, meaning, exampleSentence);
+            docCount++;
+        });
+        loaded = true;
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    synchronized void onWordInserted(long id, String meaning, String exampleSentence) {
+        if (loaded && id >= 0) {
+            index(id, meaning, exampleSentence);
+            docCount++;
+        }
+    }
+
+    synchronized void onWordUpdated(long id, String meaning, String exampleSentence) {
+        if (loaded) {
+            index(id, meaning, exampleSentence);
+        }
+    }
+
+    synchronized void invalidate() {
+        loaded = false;
+        postings.clear();
+        docCount = 0;
+    }
+
+    synchronized int size() {
+        return docCount;
+    }
+
+    // 返回按 id 倒序、小于 beforeId 的候选 id，最多 limit 个；beforeId <= 0 表示从头开始。
+    // 三个字以上的中文查询由两字词元求交得到，可能有误命中，调用方需要用 matches 再校验原文。
+    synchronized List<Long> candidates(String query, long beforeId, int limit) {
+        List<Long> result = new ArrayList<>();
+        Set<String> tokens = queryTokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return result;
+        }
+        List<PostingList> lists = new ArrayList<>();
+        for (String token : tokens) {
+            PostingList list = postings.get(token);
+            if (list == null) {
+                return result;
+            }
+            lists.add(list);
+        }
+        // 从最短的倒排表出发，逐个在其余表里二分查找
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        PostingList shortest = lists.get(0);
+        int start = beforeId <= 0 ? shortest.size - 1 : shortest.lowerIndex(beforeId) - 1;
+        for (int i = start; i >= 0 && result.size() < limit; i--) {
+            long id = shortest.ids[i];
+            boolean all = true;
+            for (int k = 1; k < lists.size() && all; k++) {
+                all = lists.get(k).contains(id);
+            }
+            if (all) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    static boolean matches(String query, String meaning, String exampleSentence) {
+        String text = (meaning == null ? "" : meaning.toLowerCase(Locale.ROOT)) + "\n"
+                + (exampleSentence == null ? "" : exampleSentence.toLowerCase(Locale.ROOT));
+        for (String term : queryTerms(query)) {
+            if (!text.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(long id, String meaning, String exampleSentence) {
+        Set<String> tokens = new HashSet<>();
+        tokenize(meaning, tokens, true);
+        tokenize(exampleSentence, tokens, true);
+        for (String token : tokens) {
+            PostingList list = postings.get(token);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(token, list);
+            }
+            list.add(id);
+        }
+    }
+
+    private static Set<String> queryTokens(String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokenize(query, tokens, false);
+        return tokens;
+    }
+
+    // 查询按原样拆成连续的汉字串和英文单词，用于校验候选结果
+    private static List<String> queryTerms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        StringBuilder current = new StringBuilder();
+        int type = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            int charType = charType(c);
+            if (charType != type && current.length() > 0) {
+                terms.add(current.toString());
+                current.setLength(0);
+            }
+            type = charType;
+            if (charType != 0) {
+                current.append(Character.toLowerCase(c));
+            }
+        }
+        if (current.length() > 0) {
+            terms.add(current.toString());
+        }
+        return terms;
+    }
+
+    // forIndex 为 true 时中文同时输出单字和两字词元；查询时只用两字词元，单字查询才用单字
+    private static void tokenize(String text, Set<String> tokens, boolean forIndex) {
+        for (String term : queryTerms(text)) {
+            if (charType(term.charAt(0)) == 1) {
+                tokens.add(term);
+                continue;
+            }
+            if (forIndex || term.length() == 1) {
+                for (int i = 0; i < term.length(); i++) {
+                    tokens.add(term.substring(i, i + 1));
+                }
+            }
+            for (int i = 0; i + 1 < term.length(); i++) {
+                tokens.add(term.substring(i, i + 2));
+            }
+        }
+    }
+
+    // 0：分隔符，1：英文字母或数字，2：汉字
+    private static int charType(char c) {
+        if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+            return 2;
+        }
+        if (Character.isLetterOrDigit(c) || c == '\'') {
+            return 1;
+        }
+        return 0;
+    }
+
+    // 按 id 升序的倒排表。新单词的 id 递增，插入基本都是追加
+    private static class PostingList {
+        long[] ids = new long[2];
+        int size = 0;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                int insertAt = -index - 1;
+                grow();
+                System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+                ids[insertAt] = id;
+                size++;
+                return;
+            }
+            grow();
+            ids[size++] = id;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        // 第一个不小于 id 的位置
+        int lowerIndex(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.wordlearning.app.database;
+
+/**
+ * 一次快照导出或导入的结果。watermark 是这份快照覆盖到的变更水位，
+ * 下次把它作为 since 传给 exportSnapshot 即可得到之后的增量。
+ */
+public class SnapshotInfo {
+    private final boolean delta;
+    private final long since;
+    private final long watermark;
+    private final long wordCount;
+    private final long mistakeCount;
+    private final long bytes;
+    private final long elapsedMs;
+
+    SnapshotInfo(boolean delta, long since, long watermark, long wordCount, long mistakeCount,
+                 long bytes, long elapsedMs) {
+        this.delta = delta;
+        this.since = since;
+        this.watermark = watermark;
+        this.wordCount = wordCount;
+        this.mistakeCount = mistakeCount;
+        this.bytes = bytes;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    public long getMistakeCount() {
+        return mistakeCount;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return (delta ? "delta since " + since : "full") + " snapshot up to " + watermark + ": "
+                + wordCount + " words, " + mistakeCount + " mistakes, " + bytes + " bytes in " + elapsedMs + "ms";
+    }
+}
@@ -0,0 +1,279 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 按块流式读取 SnapshotWriter 写出的快照，每读出一条记录就交给 Handler，
+ * 内存中只保留当前块。格式说明见 SnapshotWriter。
+ */
+class SnapshotReader implements Closeable {
+    // 单条记录超过一块时块会变大，这里只用来拒绝损坏的长度字段
+    private static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+
+    interface Handler {
+        void onWord(Word word, long updatedAt) throws SQLException;
+
+        void onMistake(MistakeWord mistakeWord, long updatedAt) throws SQLException;
+    }
+
+    private final ReadableByteChannel channel;
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+    private final List<String> dictionary = new ArrayList<>();
+    private final boolean delta;
+    private final long since;
+    private final long watermark;
+    private final long exportedAt;
+    private byte[] compressed = new byte[SnapshotWriter.BLOCK_SIZE];
+    private byte[] raw = new byte[SnapshotWriter.BLOCK_SIZE];
+    private int position;
+    private int limit;
+    private long previousTime;
+    private long bytesRead = 0;
+
+    SnapshotReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(SnapshotWriter.HEADER_SIZE);
+        if (!readFully(header)) {
+            throw new IOException("Not a word snapshot: file is too short");
+        }
+        header.flip();
+        if (header.getInt() != SnapshotWriter.MAGIC) {
+            throw new IOException("Not a word snapshot: bad magic");
+        }
+        int version = header.getShort();
+        if (version != SnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        this.delta = header.get() == SnapshotWriter.KIND_DELTA;
+        header.get();
+        this.since = header.getLong();
+        this.watermark = header.getLong();
+        this.exportedAt = header.getLong();
+    }
+
+    boolean isDelta() {
+        return delta;
+    }
+
+    long getSince() {
+        return since;
+    }
+
+    long getWatermark() {
+        return watermark;
+    }
+
+    long getExportedAt() {
+        return exportedAt;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    void read(Handler handler) throws IOException, SQLException {
+        long words = 0;
+        long mistakes = 0;
+        while (nextBlock()) {
+            while (position < limit) {
+                int type = raw[position++];
+                int length = (int) readVarLong();
+                int end = position + length;
+                if (length < 0 || end > limit) {
+                    throw new IOException("Corrupt snapshot: record overruns its block");
+                }
+                switch (type) {
+                    case SnapshotWriter.RECORD_WORD:
+                        readWord(handler);
+                        words++;
+                        break;
+                    case SnapshotWriter.RECORD_MISTAKE:
+                        readMistake(handler);
+                        mistakes++;
+                        break;
+                    case SnapshotWriter.RECORD_END:
+                        long expectedWords = readVarLong();
+                        long expectedMistakes = readVarLong();
+                        if (expectedWords != words || expectedMistakes != mistakes) {
+                            throw new IOException("Corrupt snapshot: expected " + expectedWords + " words and "
+                                    + expectedMistakes + " mistakes, read " + words + " and " + mistakes);
+                        }
+                        return;
+                    default:
+                        // 新版本增加的记录类型，跳过
+                        break;
+                }
+                if (position > end) {
+                    throw new IOException("Corrupt snapshot: record is longer than its length prefix");
+                }
+                // 新版本在记录末尾追加的字段同样跳过
+                position = end;
+            }
+        }
+        throw new IOException("Snapshot is truncated");
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+    }
+
+    private void readWord(Handler handler) throws IOException, SQLException {
+        Word word = new Word();
+        word.setWord(readString());
+        word.setPronunciation(readString());
+        word.setMeaning(readString());
+        word.setExampleSentence(readString());
+        long createdAt = previousTime + unZigZag(readVarLong());
+        long lastReview = readVarLong();
+        word.setCreatedAt(createdAt);
+        word.setLastReviewTime(lastReview == 0 ? 0 : createdAt + unZigZag(lastReview - 1));
+        word.setReviewCount((int) readVarLong());
+        word.setLearned(readByte() != 0);
+        long updatedAt = createdAt + unZigZag(readVarLong());
+        previousTime = createdAt;
+        handler.onWord(word, updatedAt);
+    }
+
+    private void readMistake(Handler handler) throws IOException, SQLException {
+        MistakeWord mistakeWord = new MistakeWord();
+        mistakeWord.setWord(readString());
+        mistakeWord.setMistakeType(readString());
+        long addedAt = previousTime + unZigZag(readVarLong());
+        mistakeWord.setAddedAt(addedAt);
+        mistakeWord.setMistakeCount((int) readVarLong());
+        mistakeWord.setResolved(readByte() != 0);
+        long updatedAt = addedAt + unZigZag(readVarLong());
+        previousTime = addedAt;
+        handler.onMistake(mistakeWord, updatedAt);
+    }
+
+    private String readString() throws IOException {
+        long tag = readVarLong();
+        if (tag == SnapshotWriter.STRING_NULL) {
+            return null;
+        }
+        if (tag >= SnapshotWriter.STRING_REFERENCE_BASE) {
+            long index = tag - SnapshotWriter.STRING_REFERENCE_BASE;
+            if (index >= dictionary.size()) {
+                throw new IOException("Corrupt snapshot: unknown string reference " + index);
+            }
+            return dictionary.get((int) index);
+        }
+        int length = (int) readVarLong();
+        if (length < 0 || position + length > limit) {
+            throw new IOException("Corrupt snapshot: string overruns its block");
+        }
+        String value = new String(raw, position, length, StandardCharsets.UTF_8);
+        position += length;
+        if (tag == SnapshotWriter.STRING_DEFINE) {
+            dictionary.add(value);
+        }
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Corrupt snapshot: unexpected end of block");
+        }
+        return raw[position++];
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt snapshot: malformed varint");
+    }
+
+    private boolean nextBlock() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SnapshotWriter.BLOCK_HEADER_SIZE);
+        if (!readFully(header)) {
+            return false;
+        }
+        header.flip();
+        int rawLength = header.getInt();
+        int compressedLength = header.getInt();
+        int checksum = header.getInt();
+        if (rawLength < 0 || rawLength > MAX_BLOCK_SIZE || compressedLength < 0 || compressedLength > MAX_BLOCK_SIZE) {
+            throw new IOException("Corrupt snapshot: bad block header");
+        }
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        if (!readFully(ByteBuffer.wrap(compressed, 0, compressedLength))) {
+            throw new IOException("Snapshot is truncated");
+        }
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != rawLength) {
+                throw new IOException("Corrupt snapshot: block inflated to " + inflated + " of " + rawLength + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt snapshot: " + e.getMessage(), e);
+        }
+        crc.reset();
+        crc.update(raw, 0, rawLength);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Corrupt snapshot: block checksum mismatch");
+        }
+
+        position = 0;
+        limit = rawLength;
+        dictionary.clear();
+        previousTime = 0;
+        return true;
+    }
+
+    // 读满 buffer；一个字节都没读到就遇到文件结尾时返回 false，读到一半则视为截断
+    private boolean readFully(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer);
+            if (n < 0) {
+                if (buffer.position() == start) {
+                    return false;
+                }
+                throw new IOException("Snapshot is truncated");
+            }
+            bytesRead += n;
+        }
+        return true;
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,238 @@
+package com.wordlearning.app.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 词库快照的二进制写入器。文件格式：
+ * 32 字节文件头（魔数 "WLSN"、格式版本、全量/增量、起始水位、结束水位、导出时间），
+ * 之后是若干数据块，每块为 [原始长度][压缩长度][CRC32] 加上 Deflate 压缩后的内容。
+ * 块内是连续的记录：[类型][变长长度][内容]，读取方可以按长度跳过不认识的记录类型。
+ * 整数用变长编码，时间戳写成相对前一条记录的差值；短字符串在块内去重，
+ * 重复出现时只写编号。字典和差值基准每块重置，所以内存占用只和块大小有关，与表的行数无关。
+ */
+class SnapshotWriter implements Closeable {
+    static final int MAGIC = 0x574C534E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int BLOCK_HEADER_SIZE = 12;
+    static final byte KIND_FULL = 0;
+    static final byte KIND_DELTA = 1;
+    static final byte RECORD_END = 0;
+    static final byte RECORD_WORD = 1;
+    static final byte RECORD_MISTAKE = 2;
+    // 字符串标记：0 为 null，1 为不入字典的原文，2 为入字典的原文，n >= 3 引用字典第 n - 3 项
+    static final int STRING_NULL = 0;
+    static final int STRING_LITERAL = 1;
+    static final int STRING_DEFINE = 2;
+    static final int STRING_REFERENCE_BASE = 3;
+    static final int BLOCK_SIZE = 64 * 1024;
+    static final int MAX_DICTIONARY_SIZE = 1024;
+    static final int MAX_DICTIONARY_BYTES = 64;
+
+    private final WritableByteChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final CRC32 crc = new CRC32();
+    private final Buffer block = new Buffer(BLOCK_SIZE + 1024);
+    private final Buffer record = new Buffer(1024);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private byte[] compressed = new byte[BLOCK_SIZE];
+    private long previousTime = 0;
+    private long wordCount = 0;
+    private long mistakeCount = 0;
+    private long bytesWritten = 0;
+    private boolean finished = false;
+
+    SnapshotWriter(WritableByteChannel channel, boolean delta, long since, long watermark) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.put(delta ? KIND_DELTA : KIND_FULL);
+        header.put((byte) 0);
+        header.putLong(since);
+        header.putLong(watermark);
+        header.putLong(System.currentTimeMillis());
+        header.flip();
+        writeFully(header);
+    }
+
+    void writeWord(String word, String pronunciation, String meaning, String exampleSentence,
+                   long createdAt, long lastReviewTime, int reviewCount, boolean learned, long updatedAt) throws IOException {
+        record.reset();
+        writeString(word);
+        writeString(pronunciation);
+        writeString(meaning);
+        writeString(exampleSentence);
+        record.writeVarLong(zigZag(createdAt - previousTime));
+        record.writeVarLong(lastReviewTime <= 0 ? 0 : zigZag(lastReviewTime - createdAt) + 1);
+        record.writeVarLong(reviewCount);
+        record.writeByte(learned ? 1 : 0);
+        record.writeVarLong(zigZag(updatedAt - createdAt));
+        previousTime = createdAt;
+        appendRecord(RECORD_WORD);
+        wordCount++;
+    }
+
+    void writeMistake(String word, String mistakeType, long addedAt, int count, boolean resolved,
+                      long updatedAt) throws IOException {
+        record.reset();
+        writeString(word);
+        writeString(mistakeType);
+        record.writeVarLong(zigZag(addedAt - previousTime));
+        record.writeVarLong(count);
+        record.writeByte(resolved ? 1 : 0);
+        record.writeVarLong(zigZag(updatedAt - addedAt));
+        previousTime = addedAt;
+        appendRecord(RECORD_MISTAKE);
+        mistakeCount++;
+    }
+
+    long getWordCount() {
+        return wordCount;
+    }
+
+    long getMistakeCount() {
+        return mistakeCount;
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    // 写入结束记录（含两类记录的条数，供读取方校验完整性）并刷出最后一块
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        record.reset();
+        record.writeVarLong(wordCount);
+        record.writeVarLong(mistakeCount);
+        appendRecord(RECORD_END);
+        flushBlock();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            record.writeVarLong(STRING_NULL);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            record.writeVarLong(STRING_REFERENCE_BASE + index);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_DICTIONARY_BYTES && dictionary.size() < MAX_DICTIONARY_SIZE) {
+            dictionary.put(value, dictionary.size());
+            record.writeVarLong(STRING_DEFINE);
+        } else {
+            record.writeVarLong(STRING_LITERAL);
+        }
+        record.writeVarLong(bytes.length);
+        record.write(bytes, 0, bytes.length);
+    }
+
+    private void appendRecord(byte type) throws IOException {
+        block.writeByte(type);
+        block.writeVarLong(record.size);
+        block.write(record.bytes, 0, record.size);
+        if (block.size >= BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (block.size == 0) {
+            return;
+        }
+        crc.reset();
+        crc.update(block.bytes, 0, block.size);
+        deflater.reset();
+        deflater.setInput(block.bytes, 0, block.size);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        header.putInt(block.size);
+        header.putInt(length);
+        header.putInt((int) crc.getValue());
+        header.flip();
+        writeFully(header);
+        writeFully(ByteBuffer.wrap(compressed, 0, length));
+
+        block.reset();
+        dictionary.clear();
+        previousTime = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // 可增长的字节数组，块和单条记录共用
+    private static class Buffer {
+        byte[] bytes;
+        int size = 0;
+
+        Buffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void write(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
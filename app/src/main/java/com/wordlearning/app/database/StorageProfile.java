@@ -0,0 +1,47 @@
+package com.wordlearning.app.database;
+
+/**
+ * H2 存储参数的几组预设，拼接在 JDBC URL 后面，重新打开数据库后生效。
+ * cacheSizeKb：页缓存大小；writeDelayMs：提交后最多多久写盘，0 表示每次提交立即落盘；
+ * maxCompactTimeMs：关闭时用于整理文件的时间；autoCompactFillRate：MVStore 后台重写块的填充率阈值；
+ * compactBelowFillRate：后台检查发现块填充率低于该值时，在空闲关闭时执行 SHUTDOWN COMPACT。
+ * MVStore 的页大小由 H2 内部固定，URL 中的 PAGE_SIZE 不再生效，所以这里不提供。
+ */
+public enum StorageProfile {
+    DURABLE(4096, 0, 1000, 90, 60),
+    BALANCED(8192, 500, 200, 90, 50),
+    FAST(16384, 2000, 0, 50, 30);
+
+    public final int cacheSizeKb;
+    public final int writeDelayMs;
+    public final int maxCompactTimeMs;
+    public final int autoCompactFillRate;
+    public final int compactBelowFillRate;
+
+    StorageProfile(int cacheSizeKb, int writeDelayMs, int maxCompactTimeMs,
+                   int autoCompactFillRate, int compactBelowFillRate) {
+        this.cacheSizeKb = cacheSizeKb;
+        this.writeDelayMs = writeDelayMs;
+        this.maxCompactTimeMs = maxCompactTimeMs;
+        this.autoCompactFillRate = autoCompactFillRate;
+        this.compactBelowFillRate = compactBelowFillRate;
+    }
+
+    String urlSettings() {
+        return ";CACHE_SIZE=" + cacheSizeKb +
+                ";WRITE_DELAY=" + writeDelayMs +
+                ";MAX_COMPACT_TIME=" + maxCompactTimeMs +
+                ";AUTO_COMPACT_FILL_RATE=" + autoCompactFillRate;
+    }
+
+    static StorageProfile parse(String value) {
+        if (value != null) {
+            for (StorageProfile profile : values()) {
+                if (profile.name().equalsIgnoreCase(value.trim())) {
+                    return profile;
+                }
+            }
+        }
+        return BALANCED;
+    }
+}
@@ -0,0 +1,169 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.Word;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 单词实体的 LRU 缓存，按 id 存放，另有一张“小写单词 -> id”的索引供 findWordByText 使用。
+ * 进出缓存的都是副本，调用方修改返回的 Word 不会污染缓存；只缓存完整的行，摘要查询不进缓存。
+ */
+class WordCache {
+    private final LinkedHashMap<Long, Word> byId;
+    private final Map<String, Long> idByText = new HashMap<>();
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    // 每次写操作加一。读库前记下，写回缓存时若已变化说明期间有写入，结果可能过期，直接丢弃
+    private long generation = 0;
+
+    WordCache(final int maxSize) {
+        this.byId = new LinkedHashMap<Long, Word>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Word> eldest) {
+                if (size() > maxSize) {
+                    removeText(eldest.getValue());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    synchronized Word get(long id) {
+        Word word = byId.get(id);
+        if (word == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOf(word);
+    }
+
+    synchronized Word getByText(String normalizedText) {
+        Long id = idByText.get(normalizedText);
+        Word word = id == null ? null : byId.get(id);
+        if (word == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOf(word);
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void put(Word word, long loadedAt) {
+        if (loadedAt == generation) {
+            put(word);
+        }
+    }
+
+    synchronized void putAll(Iterable<Word> words, long loadedAt) {
+        if (loadedAt == generation) {
+            for (Word word : words) {
+                put(word);
+            }
+        }
+    }
+
+    // 文本索引只由 findWordByText 的查询结果写入，它总是对应同名单词中最新的一条
+    synchronized void putByText(String normalizedText, Word word, long loadedAt) {
+        if (loadedAt == generation) {
+            put(word);
+            idByText.put(normalizedText, word.getId());
+        }
+    }
+
+    private void put(Word word) {
+        Word previous = byId.put(word.getId(), copyOf(word));
+        if (previous != null && !sameText(previous, word)) {
+            removeText(previous);
+        }
+    }
+
+    // 只同步 updateWord 会写入的字段，缓存里没有的单词不做处理
+    synchronized void onWordUpdated(Word word) {
+        generation++;
+        Word cached = byId.get(word.getId());
+        if (cached == null) {
+            return;
+        }
+        cached.setPronunciation(word.getPronunciation());
+        cached.setMeaning(word.getMeaning());
+        cached.setExampleSentence(word.getExampleSentence());
+        cached.setLastReviewTime(word.getLastReviewTime());
+        cached.setReviewCount(word.getReviewCount());
+        cached.setLearned(word.isLearned());
+    }
+
+    // 新插入的同名单词会改变 findWordByText 的结果，去掉对应的文本索引
+    synchronized void onWordInserted(Word word) {
+        generation++;
+        String text = normalize(word.getWord());
+        if (text != null) {
+            idByText.remove(text);
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        byId.clear();
+        idByText.clear();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    private void removeText(Word word) {
+        String text = normalize(word.getWord());
+        if (text != null) {
+            Long id = idByText.get(text);
+            if (id != null && id == word.getId()) {
+                idByText.remove(text);
+            }
+        }
+    }
+
+    private static boolean sameText(Word a, Word b) {
+        String text = normalize(a.getWord());
+        return text != null && text.equals(normalize(b.getWord()));
+    }
+
+    private static String normalize(String word) {
+        return word == null ? null : word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Word copyOf(Word word) {
+        Word copy = new Word();
+        copy.setId(word.getId());
+        copy.setWord(word.getWord());
+        copy.setPronunciation(word.getPronunciation());
+        copy.setMeaning(word.getMeaning());
+        copy.setExampleSentence(word.getExampleSentence());
+        copy.setCreatedAt(word.getCreatedAt());
+        copy.setLastReviewTime(word.getLastReviewTime());
+        copy.setReviewCount(word.getReviewCount());
+        copy.setLearned(word.isLearned());
+        return copy;
+    }
+}
@@ -0,0 +1,76 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.Word;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 按 (created_at, id) 倒序分页读取单词，内存中最多只保留一页数据。
+ * 读某一页出错时 hasNext/next 抛出 ReadException，不会当作已经读完；调用方可以捕获后重试，从出错的那一页接着读。
+ */
+public class WordCursor implements Iterator<Word>, Iterable<Word> {
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    interface PageLoader {
+        List<Word> load(Word after, int limit) throws SQLException;
+    }
+
+    /**
+     * 读取下一页失败，原因是底层的 SQLException。
+     */
+    public static class ReadException extends RuntimeException {
+        ReadException(SQLException cause) {
+            super("Failed to read words page", cause);
+        }
+    }
+
+    private final PageLoader loader;
+    private final int pageSize;
+    private List<Word> page = Collections.emptyList();
+    private int position = 0;
+    private Word last;
+    private boolean exhausted = false;
+
+    WordCursor(PageLoader loader, int pageSize) {
+        this.loader = loader;
+        this.pageSize = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < page.size()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        try {
+            page = loader.load(last, pageSize);
+        } catch (SQLException e) {
+            throw new ReadException(e);
+        }
+        position = 0;
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        return !page.isEmpty();
+    }
+
+    @Override
+    public Word next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        last = page.get(position++);
+        return last;
+    }
+
+    @Override
+    public Iterator<Word> iterator() {
+        return this;
+    }
+}
@@ -0,0 +1,39 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.Word;
+
+import java.util.List;
+
+/**
+ * 单词存储接口。H2（DatabaseHelper）、Android SQLite 和内存实现共用同一组操作。
+ */
+public interface WordRepository {
+    long insertWord(Word word);
+
+    long[] insertWords(List<Word> words);
+
+    void updateWord(Word word);
+
+    // 返回更新到的行数，已删除的单词不计入；出错时整批回滚并返回 -1
+    int updateWords(List<Word> words);
+
+    Word getWordById(long id);
+
+    Word findWordByText(String text);
+
+    List<Word> getAllWords();
+
+    List<Word> getWordsPage(Word after, int limit);
+
+    List<Word> getRandomWords(int count);
+
+    List<Word> getDueWords(long now, int limit);
+
+    long countWords();
+
+    // 按单词前缀查找，按单词字母序分页，after 为上一页最后一条
+    List<Word> searchByPrefix(String prefix, Word after, int limit);
+
+    // 在释义和例句中查找，按 id 倒序分页，beforeId 为上一页最后一条的 id，首页传 0
+    List<Word> searchByText(String query, long beforeId, int limit);
+}
@@ -0,0 +1,85 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.Word;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 按列序号把 words 行映射成 Word。列序号在每个结果集上只解析一次，
+ * 结果集中不存在的列（投影查询）直接跳过，对应字段保持默认值。
+ */
+class WordRowMapper {
+    private final int id;
+    private final int word;
+    private final int pronunciation;
+    private final int meaning;
+    private final int exampleSentence;
+    private final int createdAt;
+    private final int lastReviewTime;
+    private final int reviewCount;
+    private final int isLearned;
+
+    private WordRowMapper(ResultSetMetaData meta) throws SQLException {
+        int id = 0, word = 0, pronunciation = 0, meaning = 0, exampleSentence = 0;
+        int createdAt = 0, lastReviewTime = 0, reviewCount = 0, isLearned = 0;
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            switch (meta.getColumnLabel(i).toLowerCase(Locale.ROOT)) {
+                case "id": id = i; break;
+                case "word": word = i; break;
+                case "pronunciation": pronunciation = i; break;
+                case "meaning": meaning = i; break;
+                case "example_sentence": exampleSentence = i; break;
+                case "created_at": createdAt = i; break;
+                case "last_review_time": lastReviewTime = i; break;
+                case "review_count": reviewCount = i; break;
+                case "is_learned": isLearned = i; break;
+                default: break;
+            }
+        }
+        this.id = id;
+        this.word = word;
+        this.pronunciation = pronunciation;
+        this.meaning = meaning;
+        this.exampleSentence = exampleSentence;
+        this.createdAt = createdAt;
+        this.lastReviewTime = lastReviewTime;
+        this.reviewCount = reviewCount;
+        this.isLearned = isLearned;
+    }
+
+    static WordRowMapper forResultSet(ResultSet rs) throws SQLException {
+        return new WordRowMapper(rs.getMetaData());
+    }
+
+    static List<Word> readAll(ResultSet rs) throws SQLException {
+        List<Word> words = new ArrayList<>();
+        readAll(rs, words);
+        return words;
+    }
+
+    static void readAll(ResultSet rs, List<Word> into) throws SQLException {
+        WordRowMapper mapper = forResultSet(rs);
+        while (rs.next()) {
+            into.add(mapper.map(rs));
+        }
+    }
+
+    Word map(ResultSet rs) throws SQLException {
+        Word result = new Word();
+        if (id > 0) result.setId(rs.getLong(id));
+        if (word > 0) result.setWord(rs.getString(word));
+        if (pronunciation > 0) result.setPronunciation(rs.getString(pronunciation));
+        if (meaning > 0) result.setMeaning(rs.getString(meaning));
+        if (exampleSentence > 0) result.setExampleSentence(rs.getString(exampleSentence));
+        if (createdAt > 0) result.setCreatedAt(rs.getLong(createdAt));
+        if (lastReviewTime > 0) result.setLastReviewTime(rs.getLong(lastReviewTime));
+        if (reviewCount > 0) result.setReviewCount(rs.getInt(reviewCount));
+        if (isLearned > 0) result.setLearned(rs.getBoolean(isLearned));
+        return result;
+    }
+}
@@ -0,0 +1,288 @@
+package com.wordlearning.app.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 在内存中缓存单词 id，按“未学优先”抽取每日单词，避免 ORDER BY RANDOM() 全表排序。
+ * id 只在首次抽样时加载一次，之后由各存储实现的写路径增量维护。
+ */
+public class WordSampler {
+    public static final int DEFAULT_REPEAT_WINDOW = 50;
+
+    private final Random random;
+    private final IdPool unlearned = new IdPool();
+    private final IdPool learned = new IdPool();
+    private final LinkedHashSet<Long> recent = new LinkedHashSet<>();
+    private int repeatWindow;
+    private boolean loaded = false;
+
+    public WordSampler() {
+        this(System.nanoTime(), DEFAULT_REPEAT_WINDOW);
+    }
+
+    public WordSampler(long seed, int repeatWindow) {
+        this.random = new Random(seed);
+        this.repeatWindow = Math.max(0, repeatWindow);
+    }
+
+    public synchronized void setRepeatWindow(int repeatWindow) {
+        this.repeatWindow = Math.max(0, repeatWindow);
+        trimRecent();
+    }
+
+    public interface IdLoader {
+        void load(IdSink sink) throws SQLException;
+    }
+
+    public interface IdSink {
+        void add(long id, boolean isLearned);
+    }
+
+    public synchronized List<Long> sample(Connection connection, int count) throws SQLException {
+        return sample(sink -> {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT id, is_learned FROM words");
+            while (rs.next()) {
+                sink.add(rs.getLong(1), rs.getBoolean(2));
+            }
+            stmt.close();
+        }, count);
+    }
+
+    public synchronized List<Long> sample(IdLoader loader, int count) throws SQLException {
+        if (!loaded) {
+            unlearned.clear();
+            learned.clear();
+            loader.load((id, isLearned) -> (isLearned ? learned : unlearned).add(id));
+            loaded = true;
+        }
+
+        List<Long> result = new ArrayList<>(count);
+        List<Long> skipped = new ArrayList<>();
+        unlearned.pick(random, count, recent, result, skipped);
+        if (result.size() < count) {
+            learned.pick(random, count, recent, result, skipped);
+        }
+        for (int i = 0; i < skipped.size() && result.size() < count; i++) {
+            result.add(skipped.get(i));
+        }
+
+        for (Long id : result) {
+            recent.remove(id);
+            recent.add(id);
+        }
+        trimRecent();
+        return result;
+    }
+
+    public synchronized void onWordInserted(long id, boolean isLearned) {
+        if (!loaded || id < 0) {
+            return;
+        }
+        (isLearned ? learned : unlearned).add(id);
+    }
+
+    public synchronized void onWordUpdated(long id, boolean isLearned) {
+        if (!loaded) {
+            return;
+        }
+        if (isLearned) {
+            if (unlearned.remove(id)) {
+                learned.add(id);
+            }
+        } else if (learned.remove(id)) {
+            unlearned.add(id);
+        }
+    }
+
+    public synchronized void invalidate() {
+        loaded = false;
+        unlearned.clear();
+        learned.clear();
+    }
+
+    private void trimRecent() {
+        while (recent.size() > repeatWindow) {
+            Long oldest = recent.iterator().next();
+            recent.remove(oldest);
+        }
+    }
+
+    private static class IdPool {
+        private long[] ids = new long[64];
+        private int size = 0;
+        private final IdPositions positions = new IdPositions();
+
+        void add(long id) {
+            if (positions.get(id) >= 0) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            positions.put(id, size);
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = positions.remove(id);
+            if (index < 0) {
+                return false;
+            }
+            size--;
+            if (index != size) {
+                ids[index] = ids[size];
+                positions.put(ids[index], index);
+            }
+            return true;
+        }
+
+        void clear() {
+            size = 0;
+            positions.clear();
+        }
+
+        // 部分 Fisher-Yates：只洗牌需要的前几个位置，代价与 count 和重复窗口有关，与表大小无关
+        void pick(Random random, int count, Set<Long> exclude, List<Long> result, List<Long> skipped) {
+            for (int i = 0; i < size && result.size() < count; i++) {
+                swap(i, i + random.nextInt(size - i));
+                long id = ids[i];
+                if (exclude.contains(id)) {
+                    skipped.add(id);
+                } else {
+                    result.add(id);
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            if (a == b) {
+                return;
+            }
+            long tmp = ids[a];
+            ids[a] = ids[b];
+            ids[b] = tmp;
+            positions.put(ids[a], a);
+            positions.put(ids[b], b);
+        }
+    }
+
+    /**
+     * id 到数组下标的开放寻址表（线性探测），键值都存在基本类型数组里。
+     * 百万级 id 时 HashMap<Long, Integer> 每项要多出装箱和节点对象约 80 字节，这里每项 24 到 48 字节，随负载变化。
+     */
+    static class IdPositions {
+        private static final int EMPTY = -1;
+
+        private long[] keys = new long[128];
+        private int[] values = newValues(128);
+        private int size = 0;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); values[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return EMPTY;
+        }
+
+        void put(long key, int value) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            // 负载不超过一半，探测链保持很短
+            if (size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+        }
+
+        // 返回被删除的值，不存在时返回 -1
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    int removed = values[slot];
+                    shiftBack(slot, mask);
+                    size--;
+                    return removed;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return EMPTY;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(values, EMPTY);
+            size = 0;
+        }
+
+        // 删除后把同一探测链上后面的项往前挪，不留墓碑
+        private void shiftBack(int hole, int mask) {
+            int slot = hole;
+            while (true) {
+                slot = (slot + 1) & mask;
+                if (values[slot] == EMPTY) {
+                    break;
+                }
+                int home = slot(keys[slot], mask);
+                boolean stays = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+                if (!stays) {
+                    keys[hole] = keys[slot];
+                    values[hole] = values[slot];
+                    hole = slot;
+                }
+            }
+            values[hole] = EMPTY;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = newValues(capacity);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int[] newValues(int capacity) {
+            int[] values = new int[capacity];
+            Arrays.fill(values, EMPTY);
+            return values;
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
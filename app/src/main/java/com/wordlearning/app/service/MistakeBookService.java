@@ -3,11 +3,14 @@ package com.wordlearning.app.service;
 import android.content.Context;
 import android.util.Log;
 
-import com.wordlearning.app.database.DatabaseHelper;
+import com.wordlearning.app.database.MistakeRepository;
+import com.wordlearning.app.database.Repositories;
+import com.wordlearning.app.database.WordRepository;
 import com.wordlearning.app.model.MistakeWord;
 import com.wordlearning.app.model.Word;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,16 +18,18 @@ import java.util.Map;
 public class MistakeBookService {
     private static final String TAG = "MistakeBookService";
     
-    private DatabaseHelper dbHelper;
+    private WordRepository wordRepository;
+    private MistakeRepository mistakeRepository;
     private Context context;
 
     public MistakeBookService(Context context) {
         this.context = context;
-        this.dbHelper = DatabaseHelper.getInstance(context);
+        this.wordRepository = Repositories.getWordRepository(context);
+        this.mistakeRepository = Repositories.getMistakeRepository(context);
     }
 
     public List<MistakeWord> getAllMistakeWords() {
-        return dbHelper.getAllMistakeWords();
+        return mistakeRepository.getAllMistakeWords();
     }
 
     public Map<String, List<MistakeWord>> getMistakeWordsByWord() {
@@ -69,7 +74,7 @@ public class MistakeBookService {
     }
 
     public void resolveMistakeWord(long wordId) {
-        dbHelper.resolveMistakeWord(wordId);
+        mistakeRepository.resolveMistakeWord(wordId);
         Log.d(TAG, "Resolved mistake word with ID: " + wordId);
     }
 
@@ -88,15 +93,24 @@ public class MistakeBookService {
     }
 
     public void clearAllMistakes() {
-        List<MistakeWord> allMistakes = getAllMistakeWords();
-        for (MistakeWord mistake : allMistakes) {
-            resolveMistakeWord(mistake.getWordId());
-        }
-        Log.d(TAG, "Cleared all mistakes");
+        int resolved = mistakeRepository.resolveAllMistakes();
+        Log.d(TAG, "Cleared all mistakes: " + resolved);
+    }
+
+    public int resolveMistakesByType(String mistakeType) {
+        int resolved = mistakeRepository.resolveMistakesByType(mistakeType);
+        Log.d(TAG, "Resolved " + resolved + " mistakes of type: " + mistakeType);
+        return resolved;
+    }
+
+    public int resolveMistakesForWords(Collection<Long> wordIds) {
+        int resolved = mistakeRepository.resolveMistakesForWords(wordIds);
+        Log.d(TAG, "Resolved " + resolved + " mistakes for " + wordIds.size() + " words");
+        return resolved;
     }
 
     public int getMistakeCount() {
-        return getAllMistakeWords().size();
+        return (int) mistakeRepository.countUnresolvedMistakes();
     }
 
     public int getMistakeCountByWord(String word) {
@@ -104,17 +118,11 @@ public class MistakeBookService {
     }
 
     public int getMistakeCountByType(String mistakeType) {
-        return getMistakesByType(mistakeType).size();
+        return (int) mistakeRepository.countUnresolvedMistakesByType(mistakeType);
     }
 
     private Word getWordByString(String word) {
-        List<Word> allWords = dbHelper.getAllWords();
-        for (Word w : allWords) {
-            if (w.getWord().equalsIgnoreCase(word)) {
-                return w;
-            }
-        }
-        return null;
+        return wordRepository.findWordByText(word);
     }
 
     public Word getWordDetails(String word) {
@@ -5,6 +5,9 @@ import android.content.SharedPreferences;
 import android.util.Log;
 
 import com.wordlearning.app.database.DatabaseHelper;
+import com.wordlearning.app.database.MistakeRepository;
+import com.wordlearning.app.database.Repositories;
+import com.wordlearning.app.database.WordRepository;
 import com.wordlearning.app.model.MistakeWord;
 import com.wordlearning.app.model.Word;
 
@@ -15,10 +18,12 @@ public class ReviewService {
     private static final String TAG = "ReviewService";
     private static final String PREFS_NAME = "ReviewPrefs";
     private static final String LAST_REVIEW_TIME = "last_review_time";
-    private static final long REVIEW_INTERVAL = 3 * 24 * 60 * 60 * 1000;
+    private static final long REVIEW_INTERVAL = DatabaseHelper.REVIEW_INTERVAL;
+    private static final int REVIEW_BATCH_SIZE = 100;
     
     private Context context;
-    private DatabaseHelper dbHelper;
+    private WordRepository wordRepository;
+    private MistakeRepository mistakeRepository;
     private ZhipuAIService aiService;
     private List<Word> reviewWords;
     private int currentReviewIndex = 0;
@@ -26,7 +31,8 @@ public class ReviewService {
 
     public ReviewService(Context context) {
         this.context = context;
-        this.dbHelper = DatabaseHelper.getInstance(context);
+        this.wordRepository = Repositories.getWordRepository(context);
+        this.mistakeRepository = Repositories.getMistakeRepository(context);
         this.aiService = new ZhipuAIService(context);
         this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
     }
@@ -38,7 +44,7 @@ public class ReviewService {
     }
 
     public void loadReviewWords() {
-        reviewWords = dbHelper.getWordsForReview(3);
+        reviewWords = wordRepository.getDueWords(System.currentTimeMillis(), REVIEW_BATCH_SIZE);
         currentReviewIndex = 0;
         Log.d(TAG, "Loaded " + reviewWords.size() + " words for review");
     }
@@ -121,19 +127,13 @@ public class ReviewService {
         Word wordObj = getWordByString(word);
         if (wordObj != null) {
             MistakeWord mistakeWord = new MistakeWord(wordObj.getId(), word, mistakeType);
-            dbHelper.insertMistakeWord(mistakeWord);
+            mistakeRepository.recordMistake(mistakeWord);
             Log.d(TAG, "Added mistake word: " + word + " (" + mistakeType + ")");
         }
     }
 
     private Word getWordByString(String word) {
-        List<Word> allWords = dbHelper.getAllWords();
-        for (Word w : allWords) {
-            if (w.getWord().equalsIgnoreCase(word)) {
-                return w;
-            }
-        }
-        return null;
+        return wordRepository.findWordByText(word);
     }
 
     public void markReviewCompleted() {
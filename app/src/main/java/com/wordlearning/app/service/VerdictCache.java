@@ -0,0 +1,190 @@
+package com.wordlearning.app.service;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 判题结果缓存，按 (题型, 单词, 规范化后的答案) 记住“正确/错误”。
+ * 错词本和复习里同一个答案会被反复提交，命中时不再请求接口。
+ * 条目按最近使用淘汰，超过有效期的视为未命中；整个表存成一个 JSON 文件，
+ * 启动时在后台加载，修改后延迟合并写盘。
+ */
+class VerdictCache {
+    private static final String TAG = "VerdictCache";
+    private static final long SAVE_DELAY_MS = 2000;
+
+    private final File file;
+    private final long ttlMs;
+    private final Gson gson = new Gson();
+    private final LinkedHashMap<String, Entry> entries;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "VerdictCache");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean loaded = false;
+    private boolean savePending = false;
+    private long hits = 0;
+    private long misses = 0;
+
+    private static class Entry {
+        String key;
+        boolean correct;
+        long savedAt;
+    }
+
+    VerdictCache(File file, final int maxEntries, long ttlMs) {
+        this.file = file;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        executor.execute(this::load);
+    }
+
+    // 加载完成前一律按未命中处理，不阻塞调用线程
+    synchronized Boolean get(String type, String word, String answer) {
+        Entry entry = loaded ? entries.get(key(type, word, answer)) : null;
+        if (entry == null || System.currentTimeMillis() - entry.savedAt > ttlMs) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.correct;
+    }
+
+    synchronized void put(String type, String word, String answer, boolean correct) {
+        Entry entry = new Entry();
+        entry.key = key(type, word, answer);
+        entry.correct = correct;
+        entry.savedAt = System.currentTimeMillis();
+        entries.put(entry.key, entry);
+        scheduleSave();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    // 立即把当前内容写盘
+    void flush() {
+        synchronized (this) {
+            savePending = false;
+        }
+        save();
+    }
+
+    private void scheduleSave() {
+        if (!savePending) {
+            savePending = true;
+            executor.schedule(this::flush, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void load() {
+        List<Entry> stored = null;
+        if (file.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                stored = gson.fromJson(reader, new TypeToken<List<Entry>>() {}.getType());
+            } catch (IOException | JsonParseException e) {
+                Log.w(TAG, "Discarding unreadable verdict cache", e);
+            }
+        }
+        synchronized (this) {
+            // 文件按最久未用到最近使用的顺序保存；加载前已经写入的新结果保留在最近的位置
+            LinkedHashMap<String, Entry> recent = new LinkedHashMap<>(entries);
+            entries.clear();
+            if (stored != null) {
+                long now = System.currentTimeMillis();
+                for (Entry entry : stored) {
+                    if (entry != null && entry.key != null && now - entry.savedAt <= ttlMs) {
+                        entries.put(entry.key, entry);
+                    }
+                }
+            }
+            entries.putAll(recent);
+            loaded = true;
+        }
+    }
+
+    private void save() {
+        List<Entry> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(entries.values());
+        }
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, writer);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save verdict cache", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    static String key(String type, String word, String answer) {
+        String normalizedAnswer = ZhipuAIService.CHECK_SENTENCE.equals(type) ? normalizeSpace(answer) : normalize(answer);
+        return type + '\u0001' + normalize(word) + '\u0001' + normalizedAnswer;
+    }
+
+    // 忽略大小写、首尾空白、连续空白和结尾的句号叹号，这些不影响读音和释义的判题结果
+    static String normalize(String text) {
+        String normalized = normalizeSpace(text).toLowerCase(Locale.ROOT);
+        int end = normalized.length();
+        while (end > 0 && ".。!！".indexOf(normalized.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return normalized.substring(0, end).trim();
+    }
+
+    // 造句判的是语法，大小写和标点本身可能就是对错所在，只忽略空白
+    static String normalizeSpace(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,301 @@
+package com.wordlearning.app.service;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.wordlearning.app.model.Word;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 批量补全单词信息：一次请求把若干个单词放进同一个提示词，要求返回 JSON 数组。
+ * 数组里缺失或格式不对的单词放进重试队列，之后每个单词单独发一次请求，
+ * 不会连累同一批里已经成功的单词，也不会再和新单词挤在同一批里被漏掉。
+ * 每批的单词数按“加性增、乘性减”调整：整批成功且耗时在目标以内就加大，
+ * 出错、超时或有单词缺失就缩小。几个工作线程同时取批，共用连接池里的连接。
+ */
+class WordInfoBatcher {
+    private static final String TAG = "WordInfoBatcher";
+    static final int MIN_BATCH_SIZE = 1;
+    static final int INITIAL_BATCH_SIZE = 10;
+    static final int MAX_BATCH_SIZE = 40;
+    static final int BATCH_SIZE_STEP = 5;
+    static final long TARGET_LATENCY_MS = 15000;
+    static final int MAX_ATTEMPTS = 4;
+    // 缺失的单词超过一批的十分之一才缩小批次，偶尔漏掉一两个只重试这几个
+    static final int MISSING_TOLERANCE = 10;
+
+    interface CompletionSource {
+        ZhipuAIService.Completion request(String prompt) throws IOException;
+    }
+
+    interface Listener {
+        void onProgress(int completed, int total);
+        void onComplete(List<Word> words, List<String> failedWords);
+    }
+
+    private static class Pending {
+        final String word;
+        int attempts = 0;
+
+        Pending(String word) {
+            this.word = word;
+        }
+    }
+
+    private final CompletionSource source;
+    private final WordInfoCache cache;
+    private final Gson gson = new Gson();
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    // 需要重试的单词，优先于新单词，每次只取一个
+    private final Deque<Pending> retries = new ArrayDeque<>();
+    // 按规范化单词保存结果，保持传入顺序
+    private final LinkedHashMap<String, Word> results = new LinkedHashMap<>();
+    private final List<String> failed = new ArrayList<>();
+    private int total;
+    private int completed = 0;
+    private int inFlight = 0;
+    private int activeWorkers;
+    private int batchSize = INITIAL_BATCH_SIZE;
+    private int requestCount = 0;
+    private Listener listener;
+
+    WordInfoBatcher(CompletionSource source, WordInfoCache cache) {
+        this.source = source;
+        this.cache = cache;
+    }
+
+    // 在 executor 上启动 workers 个工作线程，全部结束后回调 onComplete；需要在后台线程调用
+    void start(List<String> words, int workers, ExecutorService executor, Listener listener) {
+        this.listener = listener;
+        synchronized (this) {
+            for (String word : words) {
+                String key = WordInfoCache.normalize(word);
+                if (key == null || results.containsKey(key)) {
+                    continue;
+                }
+                // 先占位，保证结果按传入顺序排列，同时去掉重复的单词
+                results.put(key, null);
+                Word cached = cache.get(word);
+                if (cached != null) {
+                    results.put(key, cached);
+                    completed++;
+                } else {
+                    queue.add(new Pending(word.trim()));
+                }
+            }
+            total = results.size();
+            activeWorkers = Math.max(1, Math.min(workers, queue.size()));
+        }
+        listener.onProgress(completed, total);
+        if (queue.isEmpty()) {
+            finish();
+            return;
+        }
+        for (int i = 0; i < activeWorkers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    synchronized int getRequestCount() {
+        return requestCount;
+    }
+
+    private void work() {
+        List<Pending> batch;
+        while ((batch = takeBatch()) != null) {
+            process(batch);
+        }
+        boolean last;
+        synchronized (this) {
+            last = --activeWorkers == 0;
+        }
+        if (last) {
+            finish();
+        }
+    }
+
+    // 队列为空但还有批次在途时等待，它们失败的单词会进入重试队列
+    private synchronized List<Pending> takeBatch() {
+        while (queue.isEmpty() && retries.isEmpty() && inFlight > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        List<Pending> batch = new ArrayList<>(batchSize);
+        if (!retries.isEmpty()) {
+            batch.add(retries.poll());
+        } else if (queue.isEmpty()) {
+            return null;
+        } else {
+            while (batch.size() < batchSize && !queue.isEmpty()) {
+                batch.add(queue.poll());
+            }
+        }
+        inFlight++;
+        requestCount++;
+        return batch;
+    }
+
+    private void process(List<Pending> batch) {
+        long start = System.currentTimeMillis();
+        Map<String, Word> parsed;
+        long bytes;
+        try {
+            ZhipuAIService.Completion completion = source.request(buildPrompt(batch));
+            parsed = parse(completion.content);
+            bytes = completion.bytes;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Batch of " + batch.size() + " failed: " + e.getMessage());
+            parsed = null;
+            bytes = 0;
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        List<Word> received = new ArrayList<>();
+        List<Pending> missing = new ArrayList<>();
+        for (Pending pending : batch) {
+            Word word = parsed == null ? null : parsed.get(WordInfoCache.normalize(pending.word));
+            if (word != null) {
+                // 沿用调用方的拼写，模型返回的大小写可能不同
+                word.setWord(pending.word);
+                received.add(word);
+            } else {
+                missing.add(pending);
+            }
+        }
+        // 请求字节数按成功的单词平摊，缓存命中时据此统计省下的流量
+        for (Word word : received) {
+            cache.put(word, bytes / received.size());
+        }
+
+        int progress;
+        synchronized (this) {
+            for (Word word : received) {
+                results.put(WordInfoCache.normalize(word.getWord()), word);
+            }
+            completed += received.size();
+            for (Pending pending : missing) {
+                if (++pending.attempts >= MAX_ATTEMPTS) {
+                    failed.add(pending.word);
+                    completed++;
+                } else {
+                    retries.add(pending);
+                }
+            }
+            adapt(batch.size(), parsed == null, missing.size(), elapsed);
+            inFlight--;
+            progress = completed;
+            notifyAll();
+        }
+        listener.onProgress(progress, total);
+    }
+
+    // 几个工作线程的批次交错完成，缩小时只会往下调，避免较早发出的小批次把大小又调回去；
+    // 不到当前大小一半的批次（重试的单词、队尾剩下的）说明不了当前大小是否合适，不参与调整
+    private void adapt(int size, boolean error, int missing, long elapsedMs) {
+        int previous = batchSize;
+        if (size * 2 < batchSize) {
+            return;
+        }
+        if (error) {
+            batchSize = Math.max(MIN_BATCH_SIZE, Math.min(batchSize, size / 2));
+        } else if (missing * MISSING_TOLERANCE > size || elapsedMs > TARGET_LATENCY_MS) {
+            batchSize = Math.max(MIN_BATCH_SIZE, Math.min(batchSize, size * 3 / 4));
+        } else if (missing == 0 && size >= batchSize) {
+            // 只有装满且全部成功的批次才能说明当前大小还有余量
+            batchSize = Math.min(MAX_BATCH_SIZE, batchSize + BATCH_SIZE_STEP);
+        }
+        if (batchSize != previous) {
+            Log.d(TAG, "Batch size " + previous + " -> " + batchSize + " after " + size + " words in " + elapsedMs + "ms"
+                    + (error ? " (error)" : missing > 0 ? " (" + missing + " missing)" : ""));
+        }
+    }
+
+    private void finish() {
+        List<Word> words = new ArrayList<>();
+        List<String> failedWords;
+        synchronized (this) {
+            for (Word word : results.values()) {
+                if (word != null) {
+                    words.add(word);
+                }
+            }
+            failedWords = new ArrayList<>(failed);
+        }
+        Log.d(TAG, "Enriched " + words.size() + " words with " + requestCount + " requests, "
+                + failedWords.size() + " failed");
+        listener.onComplete(words, failedWords);
+    }
+
+    private String buildPrompt(List<Pending> batch) {
+        List<String> words = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            words.add(pending.word);
+        }
+        return "请为下列每个单词提供音标、中文意思和一个英文例句，只返回一个JSON数组，不要其他内容。" +
+                "数组中每个元素的格式为：\n" +
+                "{\"word\": \"单词\", \"pronunciation\": \"音标\", \"meaning\": \"中文意思\", \"example_sentence\": \"英文例句\"}\n" +
+                "单词列表：" + gson.toJson(words);
+    }
+
+    // 模型可能在数组外面包一层代码块或说明文字，只取第一个 [ 到最后一个 ] 之间的内容；
+    // 单个元素缺字段时跳过该元素，其他元素照常使用
+    Map<String, Word> parse(String content) {
+        int begin = content.indexOf('[');
+        int end = content.lastIndexOf(']');
+        if (begin < 0 || end < begin) {
+            throw new JsonParseException("No JSON array in response");
+        }
+        JsonArray array = gson.fromJson(content.substring(begin, end + 1), JsonArray.class);
+        Map<String, Word> words = new HashMap<>();
+        for (JsonElement element : array) {
+            if (!element.isJsonObject()) {
+                continue;
+            }
+            JsonObject item = element.getAsJsonObject();
+            String word = getString(item, "word");
+            String pronunciation = getString(item, "pronunciation");
+            String meaning = getString(item, "meaning");
+            String example = getString(item, "example_sentence");
+            String key = WordInfoCache.normalize(word);
+            if (key == null || pronunciation == null || meaning == null || example == null) {
+                continue;
+            }
+            Word result = new Word(word.trim());
+            result.setPronunciation(pronunciation);
+            result.setMeaning(meaning);
+            result.setExampleSentence(example);
+            words.put(key, result);
+        }
+        return words;
+    }
+
+    private static String getString(JsonObject item, String name) {
+        JsonElement value = item.get(name);
+        if (value == null || !value.isJsonPrimitive()) {
+            return null;
+        }
+        String text = value.getAsString().trim();
+        return text.isEmpty() ? null : text;
+    }
+}
@@ -0,0 +1,278 @@
+package com.wordlearning.app.service;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.wordlearning.app.model.Word;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * getWordInfo 结果的两级缓存：内存 LRU 在前，磁盘目录在后，按小写单词存取。
+ * 磁盘上每个单词一个 JSON 文件，超过有效期的条目读到时删除；目录总大小超过上限时按最后访问时间淘汰。
+ * 同一个单词的音标、释义和例句基本不会变，命中后不再请求接口。
+ */
+class WordInfoCache {
+    private static final String TAG = "WordInfoCache";
+
+    private final File directory;
+    private final long ttlMs;
+    private final long maxDiskBytes;
+    private final Gson gson = new Gson();
+    private final LinkedHashMap<String, Entry> memory;
+    private final Object diskLock = new Object();
+    private long diskBytes = -1;
+    private long memoryHits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long bytesSaved = 0;
+
+    // 磁盘条目，bytes 是当初请求和响应的字节数，命中一次就省下这么多流量
+    private static class Entry {
+        String word;
+        String pronunciation;
+        String meaning;
+        String exampleSentence;
+        long savedAt;
+        long bytes;
+    }
+
+    WordInfoCache(File directory, final int maxMemoryEntries, long ttlMs, long maxDiskBytes) {
+        this.directory = directory;
+        this.ttlMs = ttlMs;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+    }
+
+    // 只查内存，可以在主线程调用
+    synchronized Word getFromMemory(String word) {
+        String key = normalize(word);
+        Entry entry = key == null ? null : memory.get(key);
+        if (entry == null || isExpired(entry)) {
+            return null;
+        }
+        memoryHits++;
+        bytesSaved += entry.bytes;
+        return toWord(word, entry);
+    }
+
+    // 先查内存再查磁盘，磁盘命中会放回内存；需要在后台线程调用
+    Word get(String word) {
+        Word cached = getFromMemory(word);
+        if (cached != null) {
+            return cached;
+        }
+        String key = normalize(word);
+        if (key == null) {
+            return null;
+        }
+        Entry entry = readFromDisk(key);
+        synchronized (this) {
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            memory.put(key, entry);
+            diskHits++;
+            bytesSaved += entry.bytes;
+        }
+        return toWord(word, entry);
+    }
+
+    void put(Word word, long bytes) {
+        String key = normalize(word.getWord());
+        if (key == null) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.word = key;
+        entry.pronunciation = word.getPronunciation();
+        entry.meaning = word.getMeaning();
+        entry.exampleSentence = word.getExampleSentence();
+        entry.savedAt = System.currentTimeMillis();
+        entry.bytes = bytes;
+        synchronized (this) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+
+    synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    synchronized double getHitRatio() {
+        long hits = memoryHits + diskHits;
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    long getDiskBytes() {
+        synchronized (diskLock) {
+            ensureDiskSize();
+            return diskBytes;
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        synchronized (diskLock) {
+            File file = fileFor(key);
+            if (!file.exists()) {
+                return null;
+            }
+            Entry entry;
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                entry = gson.fromJson(reader, Entry.class);
+            } catch (IOException | JsonSyntaxException e) {
+                Log.w(TAG, "Dropping unreadable cache file " + file.getName(), e);
+                entry = null;
+            }
+            // 文件名是哈希，内容里的单词对不上说明撞了哈希，按未命中处理
+            if (entry == null || isExpired(entry) || !key.equals(entry.word)) {
+                delete(file);
+                return null;
+            }
+            // 用修改时间记录最后访问时间，淘汰时先删最久没用过的
+            file.setLastModified(System.currentTimeMillis());
+            return entry;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        synchronized (diskLock) {
+            ensureDiskSize();
+            if (!directory.exists() && !directory.mkdirs()) {
+                return;
+            }
+            File file = fileFor(key);
+            File temp = new File(directory, file.getName() + ".tmp");
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                gson.toJson(entry, writer);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to write cache file for " + key, e);
+                temp.delete();
+                return;
+            }
+            long previous = file.length();
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                return;
+            }
+            diskBytes += file.length() - previous;
+            if (diskBytes > maxDiskBytes) {
+                trim();
+            }
+        }
+    }
+
+    // 删到上限的四分之三，避免每写一次就整理一次目录
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long[] modified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            modified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(modified[a], modified[b]));
+        long target = maxDiskBytes * 3 / 4;
+        int removed = 0;
+        for (int i = 0; i < order.length && diskBytes > target; i++) {
+            delete(files[order[i]]);
+            removed++;
+        }
+        Log.d(TAG, "Evicted " + removed + " cache files, " + diskBytes + " bytes left");
+    }
+
+    private void ensureDiskSize() {
+        if (diskBytes >= 0) {
+            return;
+        }
+        diskBytes = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                diskBytes += file.length();
+            }
+        }
+    }
+
+    private void delete(File file) {
+        long length = file.length();
+        if (file.delete() && diskBytes >= 0) {
+            diskBytes -= length;
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.savedAt > ttlMs;
+    }
+
+    private File fileFor(String key) {
+        return new File(directory, sha1(key) + ".json");
+    }
+
+    private static Word toWord(String word, Entry entry) {
+        Word result = new Word(word);
+        result.setPronunciation(entry.pronunciation);
+        result.setMeaning(entry.meaning);
+        result.setExampleSentence(entry.exampleSentence);
+        return result;
+    }
+
+    static String normalize(String word) {
+        if (word == null) {
+            return null;
+        }
+        String normalized = word.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static String sha1(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
@@ -12,7 +12,8 @@ import android.os.IBinder;
 import android.speech.tts.TextToSpeech;
 import android.util.Log;
 
-import com.wordlearning.app.database.DatabaseHelper;
+import com.wordlearning.app.database.Repositories;
+import com.wordlearning.app.database.WordRepository;
 import com.wordlearning.app.model.Word;
 
 import java.util.List;
@@ -24,7 +25,8 @@ public class WordLearningService extends Service implements TextToSpeech.OnInitL
     
     private final IBinder binder = new LocalBinder();
     private TextToSpeech tts;
-    private DatabaseHelper dbHelper;
+    private WordRepository wordRepository;
+    private WordProgressWriter progressWriter;
     private List<Word> todayWords;
     private int currentWordIndex = 0;
     private boolean isTtsInitialized = false;
@@ -38,7 +40,9 @@ public class WordLearningService extends Service implements TextToSpeech.OnInitL
     @Override
     public void onCreate() {
         super.onCreate();
-        dbHelper = DatabaseHelper.getInstance(this);
+        Repositories.acquire(this);
+        wordRepository = Repositories.getWordRepository(this);
+        progressWriter = new WordProgressWriter(wordRepository);
         tts = new TextToSpeech(this, this);
     }
 
@@ -68,7 +72,8 @@ public class WordLearningService extends Service implements TextToSpeech.OnInitL
     }
 
     public void loadTodayWords() {
-        todayWords = dbHelper.getRandomWords(WORDS_PER_DAY);
+        progressWriter.flush();
+        todayWords = wordRepository.getRandomWords(WORDS_PER_DAY);
         currentWordIndex = 0;
         Log.d(TAG, "Loaded " + todayWords.size() + " words for today");
     }
@@ -150,7 +155,11 @@ public class WordLearningService extends Service implements TextToSpeech.OnInitL
         word.setLearned(true);
         word.setLastReviewTime(System.currentTimeMillis());
         word.setReviewCount(word.getReviewCount() + 1);
-        dbHelper.updateWord(word);
+        progressWriter.enqueue(word);
+    }
+
+    public WordProgressWriter getProgressWriter() {
+        return progressWriter;
     }
 
     public void resetTodayProgress() {
@@ -164,8 +173,11 @@ public class WordLearningService extends Service implements TextToSpeech.OnInitL
             tts.stop();
             tts.shutdown();
         }
-        if (dbHelper != null) {
-            dbHelper.close();
+        if (progressWriter != null) {
+            progressWriter.shutdown();
+        }
+        if (wordRepository != null) {
+            Repositories.release(this);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,251 @@
+package com.wordlearning.app.service;
+
+import android.util.Log;
+
+import com.wordlearning.app.database.WordRepository;
+import com.wordlearning.app.model.Word;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学习进度的异步写回队列。同一个单词的多次更新只保留最后一次，
+ * 到达数量阈值或定时器触发时在后台线程批量写入数据库。
+ * 整批写入失败时放回队列稍后重试。重试次数按单词记在它所在的那一批上，
+ * 同一批连续失败 MAX_FLUSH_ATTEMPTS 次后丢弃；单词有了新的进度时从头计数。
+ * 关闭时最后一次写入同样重试，仍然失败就逐个单词写入，只丢弃确实写不进去的。
+ */
+public class WordProgressWriter {
+    private static final String TAG = "WordProgressWriter";
+    private static final long DEFAULT_FLUSH_DELAY_MS = 2000;
+    private static final int DEFAULT_FLUSH_THRESHOLD = 20;
+    static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final WordRepository wordRepository;
+    private final long flushDelayMs;
+    private final int flushThreshold;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final Object flushLock = new Object();
+    private final LinkedHashMap<Long, Word> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean shutdown = false;
+    // 还在队列里的单词所在批次已经失败的次数
+    private final Map<Long, Integer> failedAttempts = new HashMap<>();
+
+    private long flushCount = 0;
+    private long flushedWords = 0;
+    private long failedFlushCount = 0;
+    private long droppedWords = 0;
+    private long lastFlushLatencyMs = 0;
+    private long maxFlushLatencyMs = 0;
+    private long totalFlushLatencyMs = 0;
+
+    public WordProgressWriter(WordRepository wordRepository) {
+        this(wordRepository, DEFAULT_FLUSH_DELAY_MS, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    public WordProgressWriter(WordRepository wordRepository, long flushDelayMs, int flushThreshold) {
+        this.wordRepository = wordRepository;
+        this.flushDelayMs = flushDelayMs;
+        this.flushThreshold = Math.max(1, flushThreshold);
+    }
+
+    public void enqueue(Word word) {
+        boolean flushNow;
+        synchronized (this) {
+            if (shutdown) {
+                wordRepository.updateWord(word);
+                return;
+            }
+            pending.put(word.getId(), copyOf(word));
+            failedAttempts.remove(word.getId());
+            flushNow = pending.size() >= flushThreshold;
+            if (flushNow) {
+                cancelScheduledFlush();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            List<Word> batch;
+            synchronized (this) {
+                cancelScheduledFlush();
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+
+            long start = System.currentTimeMillis();
+            int updated = wordRepository.updateWords(batch);
+            long latency = System.currentTimeMillis() - start;
+
+            // 各实现出错时回滚整批并返回 -1；没更新到的单词已被删除，算作写完，不需要重试
+            if (updated < 0) {
+                requeue(batch);
+                return;
+            }
+            synchronized (this) {
+                for (Word word : batch) {
+                    failedAttempts.remove(word.getId());
+                }
+                flushCount++;
+                flushedWords += updated;
+                lastFlushLatencyMs = latency;
+                maxFlushLatencyMs = Math.max(maxFlushLatencyMs, latency);
+                totalFlushLatencyMs += latency;
+            }
+            Log.d(TAG, "Flushed " + updated + " of " + batch.size() + " word updates in " + latency + "ms");
+        }
+    }
+
+    // 失败的单词放回队首；期间同一个单词又有了新的进度时以新的为准。
+    // 关闭过程中不丢弃，留给 shutdown 逐个写入
+    private synchronized void requeue(List<Word> batch) {
+        failedFlushCount++;
+        LinkedHashMap<Long, Word> newer = new LinkedHashMap<>(pending);
+        pending.clear();
+        int dropped = 0;
+        for (Word word : batch) {
+            if (newer.containsKey(word.getId())) {
+                continue;
+            }
+            Integer failed = failedAttempts.get(word.getId());
+            int attempts = failed == null ? 1 : failed + 1;
+            if (attempts >= MAX_FLUSH_ATTEMPTS && !shutdown) {
+                failedAttempts.remove(word.getId());
+                dropped++;
+                continue;
+            }
+            failedAttempts.put(word.getId(), attempts);
+            pending.put(word.getId(), word);
+        }
+        pending.putAll(newer);
+        if (dropped > 0) {
+            droppedWords += dropped;
+            Log.w(TAG, "Dropping " + dropped + " word updates after " + MAX_FLUSH_ATTEMPTS + " failed flushes");
+        }
+        Log.w(TAG, "Flush of " + batch.size() + " word updates failed, " + pending.size() + " queued for retry");
+        if (!shutdown && !pending.isEmpty() && scheduledFlush == null) {
+            scheduledFlush = executor.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            cancelScheduledFlush();
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int attempt = 0; attempt < MAX_FLUSH_ATTEMPTS && getQueueDepth() > 0; attempt++) {
+            flush();
+        }
+        writeOneByOne();
+    }
+
+    // 整批一直写不进去时逐个单词写入，一个单词出错不会连累其他单词
+    private void writeOneByOne() {
+        List<Word> remaining;
+        synchronized (this) {
+            remaining = new ArrayList<>(pending.values());
+            pending.clear();
+            failedAttempts.clear();
+        }
+        if (remaining.isEmpty()) {
+            return;
+        }
+        int written = 0;
+        int dropped = 0;
+        for (Word word : remaining) {
+            int updated = wordRepository.updateWords(Collections.singletonList(word));
+            if (updated < 0) {
+                dropped++;
+            } else {
+                written += updated;
+            }
+        }
+        synchronized (this) {
+            flushedWords += written;
+            droppedWords += dropped;
+        }
+        Log.w(TAG, "Wrote " + written + " of " + remaining.size() + " word updates one by one, dropped " + dropped);
+    }
+
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    public synchronized long getFlushedWords() {
+        return flushedWords;
+    }
+
+    public synchronized long getFailedFlushCount() {
+        return failedFlushCount;
+    }
+
+    public synchronized long getDroppedWords() {
+        return droppedWords;
+    }
+
+    public synchronized long getLastFlushLatencyMs() {
+        return lastFlushLatencyMs;
+    }
+
+    public synchronized long getMaxFlushLatencyMs() {
+        return maxFlushLatencyMs;
+    }
+
+    public synchronized long getAverageFlushLatencyMs() {
+        return flushCount == 0 ? 0 : totalFlushLatencyMs / flushCount;
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private static Word copyOf(Word word) {
+        Word copy = new Word();
+        copy.setId(word.getId());
+        copy.setWord(word.getWord());
+        copy.setPronunciation(word.getPronunciation());
+        copy.setMeaning(word.getMeaning());
+        copy.setExampleSentence(word.getExampleSentence());
+        copy.setCreatedAt(word.getCreatedAt());
+        copy.setLastReviewTime(word.getLastReviewTime());
+        copy.setReviewCount(word.getReviewCount());
+        copy.setLearned(word.isLearned());
+        return copy;
+    }
+}
@@ -2,59 +2,290 @@ package com.wordlearning.app.service;
 
 import android.content.Context;
 import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.wordlearning.app.SettingsActivity;
 import com.wordlearning.app.model.Word;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.Okio;
 
 public class ZhipuAIService {
     private static final String TAG = "ZhipuAIService";
     private static final String API_URL = "https://open.bigmodel.cn/api/paas/v4/chat/completions";
-    
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+    private static final String WORD_INFO_CACHE_DIR = "word_info";
+    private static final int WORD_INFO_MEMORY_ENTRIES = 200;
+    private static final long WORD_INFO_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final long WORD_INFO_DISK_BYTES = 4 * 1024 * 1024;
+    // 造句的缓存键改为区分大小写和标点，旧文件里按忽略大小写记下的结果不能再用
+    private static final String VERDICT_CACHE_FILE = "verdicts_v2.json";
+    private static final String LEGACY_VERDICT_CACHE_FILE = "verdicts.json";
+    private static final int VERDICT_CACHE_ENTRIES = 2000;
+    private static final long VERDICT_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final String CHECK_PRONUNCIATION = "pronunciation";
+    private static final String CHECK_MEANING = "meaning";
+    static final String CHECK_SENTENCE = "sentence";
+    // 批量补全同时在途的请求数，HTTP/2 下复用同一条连接
+    private static final int BATCH_WORKERS = 4;
+    // 流式返回时从已收到的内容里找出已经完整的字段
+    private static final Pattern WORD_INFO_FIELD = Pattern.compile(
+            "\"(pronunciation|meaning|example_sentence)\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    // 进程内共享一个客户端：所有实例共用连接池和调度器，TLS 握手只做一次，HTTP/2 下请求复用同一条连接
+    private static volatile OkHttpClient sharedClient;
+    private static final AtomicLong callCount = new AtomicLong();
+    private static final AtomicLong newConnectionCount = new AtomicLong();
+    private static final AtomicLong totalAcquireNanos = new AtomicLong();
+    private static volatile long lastAcquireNanos = 0;
+    private static final AtomicLong verdictCount = new AtomicLong();
+    private static final AtomicLong totalVerdictNanos = new AtomicLong();
+    private static WordInfoCache wordInfoCache;
+    private static VerdictCache verdictCache;
+    private static final ExecutorService batchExecutor = Executors.newFixedThreadPool(BATCH_WORKERS, runnable -> {
+        Thread thread = new Thread(runnable, "WordInfoBatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // HTTP/1.1 下提前不要的流在这里读完，连接才能还回连接池
+    private static final ExecutorService drainExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "StreamDrain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private OkHttpClient client;
     private Gson gson;
     private Context context;
+    private final String apiUrl;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // 流式模式下判题结果一出现就回调，单词信息按字段逐个回调
+    private volatile boolean streaming = true;
 
     public ZhipuAIService(Context context) {
+        this(context, API_URL);
+    }
+
+    ZhipuAIService(Context context, String apiUrl) {
         this.context = context;
-        this.client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+        this.apiUrl = apiUrl;
+        this.client = getSharedClient();
         this.gson = new Gson();
+        synchronized (ZhipuAIService.class) {
+            if (wordInfoCache == null) {
+                wordInfoCache = new WordInfoCache(new File(context.getApplicationContext().getCacheDir(), WORD_INFO_CACHE_DIR),
+                        WORD_INFO_MEMORY_ENTRIES, WORD_INFO_TTL_MS, WORD_INFO_DISK_BYTES);
+            }
+            if (verdictCache == null) {
+                new File(context.getApplicationContext().getCacheDir(), LEGACY_VERDICT_CACHE_FILE).delete();
+                verdictCache = new VerdictCache(new File(context.getApplicationContext().getCacheDir(), VERDICT_CACHE_FILE),
+                        VERDICT_CACHE_ENTRIES, VERDICT_TTL_MS);
+            }
+        }
+    }
+
+    static OkHttpClient getSharedClient() {
+        OkHttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (ZhipuAIService.class) {
+                client = sharedClient;
+                if (client == null) {
+                    Dispatcher dispatcher = new Dispatcher();
+                    dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+                    client = new OkHttpClient.Builder()
+                            .connectTimeout(30, TimeUnit.SECONDS)
+                            .readTimeout(30, TimeUnit.SECONDS)
+                            .writeTimeout(30, TimeUnit.SECONDS)
+                            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                            .dispatcher(dispatcher)
+                            .eventListenerFactory(call -> new AcquireTimer())
+                            .build();
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    // 应用启动时提前建立到接口域名的连接（DNS、TCP、TLS），第一次判题时直接复用
+    public static void prewarm() {
+        prewarm(API_URL);
+    }
+
+    static void prewarm(String apiUrl) {
+        OkHttpClient client = getSharedClient();
+        HttpUrl url = HttpUrl.parse(apiUrl);
+        if (url == null || client.connectionPool().connectionCount() > 0) {
+            return;
+        }
+        Request request = new Request.Builder()
+                .url(url.newBuilder().encodedPath("/").query(null).build())
+                .head()
+                .build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.d(TAG, "Connection prewarm failed: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                Log.d(TAG, "Connection prewarmed over " + response.protocol());
+            }
+        });
+    }
+
+    public static long getCallCount() {
+        return callCount.get();
+    }
+
+    public static long getNewConnectionCount() {
+        return newConnectionCount.get();
+    }
+
+    // 从发起请求到拿到可用连接的平均耗时，复用连接时接近 0
+    public static double getAverageConnectionAcquireMs() {
+        long calls = callCount.get();
+        return calls == 0 ? 0 : totalAcquireNanos.get() / 1e6 / calls;
+    }
+
+    public static double getLastConnectionAcquireMs() {
+        return lastAcquireNanos / 1e6;
+    }
+
+    // 从发出判题请求到确定结果的平均耗时，流式模式下不用等整段回答生成完
+    public static double getAverageTimeToVerdictMs() {
+        long count = verdictCount.get();
+        return count == 0 ? 0 : totalVerdictNanos.get() / 1e6 / count;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public static synchronized double getWordInfoCacheHitRatio() {
+        return wordInfoCache == null ? 0 : wordInfoCache.getHitRatio();
+    }
+
+    // 缓存命中省下的请求和响应字节数
+    public static synchronized long getWordInfoCacheBytesSaved() {
+        return wordInfoCache == null ? 0 : wordInfoCache.getBytesSaved();
+    }
+
+    public static synchronized long getVerdictCacheHits() {
+        return verdictCache == null ? 0 : verdictCache.getHits();
     }
 
+    public static synchronized long getVerdictCacheMisses() {
+        return verdictCache == null ? 0 : verdictCache.getMisses();
+    }
+
+    // 内存缓存命中时直接在调用线程回调，否则到后台查磁盘缓存，仍未命中才请求接口
     public void getWordInfo(String word, WordInfoCallback callback) {
+        Word cached = wordInfoCache.getFromMemory(word);
+        if (cached != null) {
+            callback.onWordInfoReceived(cached);
+            return;
+        }
         new GetWordInfoTask(word, callback).execute();
     }
 
+    // 批量补全单词信息：先查缓存，其余按批请求，失败的单词逐个单独重试。
+    // 进度和结果都回调到主线程；重试多次仍失败的单词放在 failedWords 里。
+    // 和 getWordInfo 一样是对外提供的接口，应用里目前还没有批量导入的入口调用它
+    public void getWordInfoBatch(List<String> words, final BatchWordInfoCallback callback) {
+        final WordInfoBatcher batcher = new WordInfoBatcher(this::requestCompletion, wordInfoCache);
+        final WordInfoBatcher.Listener listener = new WordInfoBatcher.Listener() {
+            @Override
+            public void onProgress(final int completed, final int total) {
+                mainHandler.post(() -> callback.onProgress(completed, total));
+            }
+
+            @Override
+            public void onComplete(final List<Word> enriched, final List<String> failedWords) {
+                mainHandler.post(() -> callback.onBatchComplete(enriched, failedWords));
+            }
+        };
+        batchExecutor.execute(() -> batcher.start(words, BATCH_WORKERS, batchExecutor, listener));
+    }
+
+    // 判题接口：同一单词、同一题型下规范化后相同的答案直接返回上次的结果
     public void checkPronunciation(String word, String pronunciation, PronunciationCheckCallback callback) {
+        Boolean cached = verdictCache.get(CHECK_PRONUNCIATION, word, pronunciation);
+        if (cached != null) {
+            callback.onPronunciationChecked(cached);
+            return;
+        }
         new CheckPronunciationTask(word, pronunciation, callback).execute();
     }
 
     public void checkMeaning(String word, String userMeaning, MeaningCheckCallback callback) {
+        Boolean cached = verdictCache.get(CHECK_MEANING, word, userMeaning);
+        if (cached != null) {
+            callback.onMeaningChecked(cached);
+            return;
+        }
         new CheckMeaningTask(word, userMeaning, callback).execute();
     }
 
     public void checkSentence(String word, String userSentence, SentenceCheckCallback callback) {
+        Boolean cached = verdictCache.get(CHECK_SENTENCE, word, userSentence);
+        if (cached != null) {
+            callback.onSentenceChecked(cached);
+            return;
+        }
         new CheckSentenceTask(word, userSentence, callback).execute();
     }
 
-    private class GetWordInfoTask extends AsyncTask<Void, Void, Word> {
+    private class GetWordInfoTask extends AsyncTask<Void, Word, Word> {
         private String word;
         private WordInfoCallback callback;
         private String error = null;
+        private int fieldsDelivered = 0;
 
         public GetWordInfoTask(String word, WordInfoCallback callback) {
             this.word = word;
@@ -63,6 +294,10 @@ public class ZhipuAIService {
 
         @Override
         protected Word doInBackground(Void... voids) {
+            Word cached = wordInfoCache.get(word);
+            if (cached != null) {
+                return cached;
+            }
             try {
                 String prompt = String.format(
                         "请为单词\"%s\"提供以下信息，以JSON格式返回：\n" +
@@ -74,38 +309,17 @@ public class ZhipuAIService {
                         word
                 );
 
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("model", "glm-4");
-                requestBody.add("messages", gson.toJsonTree(new Object[]{
-                        new Message("user", prompt)
-                }));
-
-                RequestBody body = RequestBody.create(
-                        MediaType.parse("application/json"),
-                        gson.toJson(requestBody)
-                );
-
-                Request request = new Request.Builder()
-                        .url(API_URL)
-                        .addHeader("Authorization", "Bearer " + getApiKey())
-                        .post(body)
-                        .build();
+                // 只有调用方要逐字段结果时才解析流式片段
+                StreamListener listener = callback instanceof WordInfoProgressCallback ? this::onContent : null;
+                Completion completion = requestCompletion(prompt, listener);
 
-                Response response = client.newCall(request).execute();
-                String responseBody = response.body().string();
-
-                JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-                String content = jsonResponse.getAsJsonArray("choices")
-                        .get(0).getAsJsonObject()
-                        .getAsJsonObject("message")
-                        .get("content").getAsString();
-
-                JsonObject wordInfo = gson.fromJson(content, JsonObject.class);
+                JsonObject wordInfo = gson.fromJson(completion.content, JsonObject.class);
 
                 Word wordObj = new Word(word);
                 wordObj.setPronunciation(wordInfo.get("pronunciation").getAsString());
                 wordObj.setMeaning(wordInfo.get("meaning").getAsString());
                 wordObj.setExampleSentence(wordInfo.get("example_sentence").getAsString());
+                wordInfoCache.put(wordObj, completion.bytes);
 
                 return wordObj;
             } catch (IOException e) {
@@ -115,6 +329,38 @@ public class ZhipuAIService {
             }
         }
 
+        // 每多出一个完整字段就回调一次当前已知的内容
+        private boolean onContent(CharSequence content) {
+            Word partial = new Word(word);
+            int fields = 0;
+            Matcher matcher = WORD_INFO_FIELD.matcher(content);
+            while (matcher.find()) {
+                String value = gson.fromJson("\"" + matcher.group(2) + "\"", String.class);
+                switch (matcher.group(1)) {
+                    case "pronunciation":
+                        partial.setPronunciation(value);
+                        break;
+                    case "meaning":
+                        partial.setMeaning(value);
+                        break;
+                    default:
+                        partial.setExampleSentence(value);
+                        break;
+                }
+                fields++;
+            }
+            if (fields > fieldsDelivered) {
+                fieldsDelivered = fields;
+                publishProgress(partial);
+            }
+            return true;
+        }
+
+        @Override
+        protected void onProgressUpdate(Word... partial) {
+            ((WordInfoProgressCallback) callback).onWordInfoPartial(partial[0]);
+        }
+
         @Override
         protected void onPostExecute(Word word) {
             if (error != null) {
@@ -125,11 +371,12 @@ public class ZhipuAIService {
         }
     }
 
-    private class CheckPronunciationTask extends AsyncTask<Void, Void, Boolean> {
+    private class CheckPronunciationTask extends AsyncTask<Void, Boolean, Boolean> {
         private String word;
         private String pronunciation;
         private PronunciationCheckCallback callback;
         private String error = null;
+        private boolean delivered = false;
 
         public CheckPronunciationTask(String word, String pronunciation, PronunciationCheckCallback callback) {
             this.word = word;
@@ -145,33 +392,7 @@ public class ZhipuAIService {
                         word, pronunciation
                 );
 
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("model", "glm-4");
-                requestBody.add("messages", gson.toJsonTree(new Object[]{
-                        new Message("user", prompt)
-                }));
-
-                RequestBody body = RequestBody.create(
-                        MediaType.parse("application/json"),
-                        gson.toJson(requestBody)
-                );
-
-                Request request = new Request.Builder()
-                        .url(API_URL)
-                        .addHeader("Authorization", "Bearer " + getApiKey())
-                        .post(body)
-                        .build();
-
-                Response response = client.newCall(request).execute();
-                String responseBody = response.body().string();
-
-                JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-                String content = jsonResponse.getAsJsonArray("choices")
-                        .get(0).getAsJsonObject()
-                        .getAsJsonObject("message")
-                        .get("content").getAsString();
-
-                return content.contains("正确");
+                return requestVerdict(prompt, CHECK_PRONUNCIATION, word, pronunciation, verdict -> publishProgress(verdict));
             } catch (IOException e) {
                 error = "Error checking pronunciation: " + e.getMessage();
                 Log.e(TAG, error, e);
@@ -179,8 +400,17 @@ public class ZhipuAIService {
             }
         }
 
+        @Override
+        protected void onProgressUpdate(Boolean... verdict) {
+            delivered = true;
+            callback.onPronunciationChecked(verdict[0]);
+        }
+
         @Override
         protected void onPostExecute(Boolean isCorrect) {
+            if (delivered) {
+                return;
+            }
             if (error != null) {
                 callback.onError(error);
             } else {
@@ -189,11 +419,12 @@ public class ZhipuAIService {
         }
     }
 
-    private class CheckMeaningTask extends AsyncTask<Void, Void, Boolean> {
+    private class CheckMeaningTask extends AsyncTask<Void, Boolean, Boolean> {
         private String word;
         private String userMeaning;
         private MeaningCheckCallback callback;
         private String error = null;
+        private boolean delivered = false;
 
         public CheckMeaningTask(String word, String userMeaning, MeaningCheckCallback callback) {
             this.word = word;
@@ -209,33 +440,7 @@ public class ZhipuAIService {
                         word, userMeaning
                 );
 
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("model", "glm-4");
-                requestBody.add("messages", gson.toJsonTree(new Object[]{
-                        new Message("user", prompt)
-                }));
-
-                RequestBody body = RequestBody.create(
-                        MediaType.parse("application/json"),
-                        gson.toJson(requestBody)
-                );
-
-                Request request = new Request.Builder()
-                        .url(API_URL)
-                        .addHeader("Authorization", "Bearer " + getApiKey())
-                        .post(body)
-                        .build();
-
-                Response response = client.newCall(request).execute();
-                String responseBody = response.body().string();
-
-                JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-                String content = jsonResponse.getAsJsonArray("choices")
-                        .get(0).getAsJsonObject()
-                        .getAsJsonObject("message")
-                        .get("content").getAsString();
-
-                return content.contains("正确");
+                return requestVerdict(prompt, CHECK_MEANING, word, userMeaning, verdict -> publishProgress(verdict));
             } catch (IOException e) {
                 error = "Error checking meaning: " + e.getMessage();
                 Log.e(TAG, error, e);
@@ -243,8 +448,17 @@ public class ZhipuAIService {
             }
         }
 
+        @Override
+        protected void onProgressUpdate(Boolean... verdict) {
+            delivered = true;
+            callback.onMeaningChecked(verdict[0]);
+        }
+
         @Override
         protected void onPostExecute(Boolean isCorrect) {
+            if (delivered) {
+                return;
+            }
             if (error != null) {
                 callback.onError(error);
             } else {
@@ -253,11 +467,12 @@ public class ZhipuAIService {
         }
     }
 
-    private class CheckSentenceTask extends AsyncTask<Void, Void, Boolean> {
+    private class CheckSentenceTask extends AsyncTask<Void, Boolean, Boolean> {
         private String word;
         private String userSentence;
         private SentenceCheckCallback callback;
         private String error = null;
+        private boolean delivered = false;
 
         public CheckSentenceTask(String word, String userSentence, SentenceCheckCallback callback) {
             this.word = word;
@@ -273,33 +488,7 @@ public class ZhipuAIService {
                         word, userSentence
                 );
 
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("model", "glm-4");
-                requestBody.add("messages", gson.toJsonTree(new Object[]{
-                        new Message("user", prompt)
-                }));
-
-                RequestBody body = RequestBody.create(
-                        MediaType.parse("application/json"),
-                        gson.toJson(requestBody)
-                );
-
-                Request request = new Request.Builder()
-                        .url(API_URL)
-                        .addHeader("Authorization", "Bearer " + API_KEY)
-                        .post(body)
-                        .build();
-
-                Response response = client.newCall(request).execute();
-                String responseBody = response.body().string();
-
-                JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-                String content = jsonResponse.getAsJsonArray("choices")
-                        .get(0).getAsJsonObject()
-                        .getAsJsonObject("message")
-                        .get("content").getAsString();
-
-                return content.contains("正确");
+                return requestVerdict(prompt, CHECK_SENTENCE, word, userSentence, verdict -> publishProgress(verdict));
             } catch (IOException e) {
                 error = "Error checking sentence: " + e.getMessage();
                 Log.e(TAG, error, e);
@@ -307,8 +496,17 @@ public class ZhipuAIService {
             }
         }
 
+        @Override
+        protected void onProgressUpdate(Boolean... verdict) {
+            delivered = true;
+            callback.onSentenceChecked(verdict[0]);
+        }
+
         @Override
         protected void onPostExecute(Boolean isCorrect) {
+            if (delivered) {
+                return;
+            }
             if (error != null) {
                 callback.onError(error);
             } else {
@@ -317,6 +515,236 @@ public class ZhipuAIService {
         }
     }
 
+    private Completion requestCompletion(String prompt) throws IOException {
+        return requestCompletion(prompt, null);
+    }
+
+    // listener 不为空且开启了流式模式时以 SSE 方式请求，每收到一段内容就把目前为止的完整内容交给 listener
+    private Completion requestCompletion(String prompt, StreamListener listener) throws IOException {
+        boolean stream = streaming && listener != null;
+        JsonObject requestBody = new JsonObject();
+        requestBody.addProperty("model", "glm-4");
+        requestBody.add("messages", gson.toJsonTree(new Object[]{
+                new Message("user", prompt)
+        }));
+        if (stream) {
+            requestBody.addProperty("stream", true);
+        }
+
+        byte[] requestBytes = gson.toJson(requestBody).getBytes(StandardCharsets.UTF_8);
+        RequestBody body = RequestBody.create(requestBytes, JSON);
+
+        Request request = new Request.Builder()
+                .url(apiUrl)
+                .addHeader("Authorization", "Bearer " + getApiKey())
+                .post(body)
+                .build();
+
+        // 关闭响应才会把连接还回连接池；交给后台读完的响应由后台负责关闭
+        Call call = client.newCall(request);
+        Response response = call.execute();
+        boolean handedOff = false;
+        try {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response code " + response.code());
+            }
+            ResponseBody responseBody = response.body();
+            MediaType contentType = responseBody.contentType();
+            if (stream && contentType != null && "event-stream".equals(contentType.subtype())) {
+                Completion completion = readStream(responseBody.source(), requestBytes.length, listener);
+                if (completion.stoppedEarly) {
+                    handedOff = releaseEarly(call, response);
+                }
+                return completion;
+            }
+
+            // 服务端不支持流式时会直接返回完整结果
+            byte[] responseBytes = responseBody.bytes();
+            JsonObject jsonResponse = gson.fromJson(new String(responseBytes, StandardCharsets.UTF_8), JsonObject.class);
+            String content = jsonResponse.getAsJsonArray("choices")
+                    .get(0).getAsJsonObject()
+                    .getAsJsonObject("message")
+                    .get("content").getAsString();
+            if (listener != null) {
+                listener.onContent(content);
+            }
+            return new Completion(content, requestBytes.length + responseBytes.length);
+        } finally {
+            if (!handedOff) {
+                response.close();
+            }
+        }
+    }
+
+    // HTTP/2 下取消只会重置这一路流，连接照样复用；HTTP/1.1 下取消会关掉连接，
+    // 改为在后台把剩下的内容读完再关闭响应，调用线程不用等。返回 true 表示响应已交给后台
+    private boolean releaseEarly(Call call, Response response) {
+        if (response.protocol() == Protocol.HTTP_2) {
+            call.cancel();
+            return false;
+        }
+        try {
+            drainExecutor.execute(() -> {
+                try (Response drained = response) {
+                    drained.body().source().readAll(Okio.blackhole());
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to drain stream: " + e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            call.cancel();
+            return false;
+        }
+    }
+
+    // 逐行读取 "data: {...}" 事件，拼接 choices[0].delta.content，读到流结束为止。
+    // listener 表示不再需要后面的内容时立即停下，剩下的流由调用方按协议处理
+    private Completion readStream(BufferedSource source, long requestBytes, StreamListener listener) throws IOException {
+        StringBuilder content = new StringBuilder();
+        long bytes = requestBytes;
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            bytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || data.equals("[DONE]")) {
+                continue;
+            }
+            JsonArray choices = gson.fromJson(data, JsonObject.class).getAsJsonArray("choices");
+            if (choices == null || choices.size() == 0) {
+                continue;
+            }
+            JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+            JsonElement text = delta == null ? null : delta.get("content");
+            if (text == null || text.isJsonNull() || text.getAsString().isEmpty()) {
+                continue;
+            }
+            content.append(text.getAsString());
+            if (!listener.onContent(content)) {
+                return new Completion(content.toString(), bytes, true);
+            }
+        }
+        return new Completion(content.toString(), bytes);
+    }
+
+    // 判题：内容里一出现结论就写入缓存并通过 listener 交出结果，剩下的流不再等。
+    // 回答里找不到结论时抛出 IOException，不写缓存，由调用方按出错处理
+    private boolean requestVerdict(String prompt, String type, String word, String answer,
+                                   VerdictListener listener) throws IOException {
+        long start = System.nanoTime();
+        Boolean[] decided = {null};
+        Completion completion;
+        try {
+            completion = requestCompletion(prompt, content -> {
+                if (decided[0] == null) {
+                    decided[0] = parseVerdict(content);
+                    if (decided[0] != null) {
+                        recordTimeToVerdict(start);
+                        verdictCache.put(type, word, answer, decided[0]);
+                        listener.onVerdict(decided[0]);
+                    }
+                }
+                return decided[0] == null;
+            });
+        } catch (IOException e) {
+            // 结论已经交出去了，剩下的内容读不到也没关系
+            if (decided[0] != null) {
+                Log.w(TAG, "Stream broke after verdict: " + e.getMessage());
+                return decided[0];
+            }
+            throw e;
+        }
+        if (decided[0] != null) {
+            return decided[0];
+        }
+        // 非流式的回答在这里才解析
+        Boolean verdict = parseVerdict(completion.content);
+        if (verdict == null) {
+            throw new IOException("No verdict in response: " + completion.content);
+        }
+        recordTimeToVerdict(start);
+        verdictCache.put(type, word, answer, verdict);
+        return verdict;
+    }
+
+    // 以最先出现的“正确”或“错误”为准，“不正确”算错误；还没出现时返回 null
+    static Boolean parseVerdict(CharSequence content) {
+        String text = content.toString();
+        int correct = text.indexOf("正确");
+        int wrong = text.indexOf("错误");
+        if (correct < 0 && wrong < 0) {
+            return null;
+        }
+        if (correct >= 0 && (wrong < 0 || correct < wrong)) {
+            return correct == 0 || text.charAt(correct - 1) != '不';
+        }
+        return false;
+    }
+
+    private static void recordTimeToVerdict(long start) {
+        totalVerdictNanos.addAndGet(System.nanoTime() - start);
+        verdictCount.incrementAndGet();
+    }
+
+    private interface StreamListener {
+        // 返回 false 表示已经拿到需要的内容，不再读后面的流
+        boolean onContent(CharSequence content);
+    }
+
+    private interface VerdictListener {
+        void onVerdict(boolean correct);
+    }
+
+    static class Completion {
+        final String content;
+        // 请求和响应正文的总字节数
+        final long bytes;
+        // 流式读取时 listener 提前叫停，响应还没读完
+        final boolean stoppedEarly;
+
+        Completion(String content, long bytes) {
+            this(content, bytes, false);
+        }
+
+        Completion(String content, long bytes, boolean stoppedEarly) {
+            this.content = content;
+            this.bytes = bytes;
+            this.stoppedEarly = stoppedEarly;
+        }
+    }
+
+    // 记录每次请求获取连接的耗时，以及是否新建了连接
+    private static class AcquireTimer extends EventListener {
+        private long callStart;
+        private boolean acquired = false;
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            newConnectionCount.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            // 重试或重定向会再次获取连接，只记第一次
+            if (acquired) {
+                return;
+            }
+            acquired = true;
+            long elapsed = System.nanoTime() - callStart;
+            lastAcquireNanos = elapsed;
+            totalAcquireNanos.addAndGet(elapsed);
+            callCount.incrementAndGet();
+        }
+    }
+
     private static class Message {
         String role;
         String content;
@@ -332,6 +760,16 @@ public class ZhipuAIService {
         void onError(String error);
     }
 
+    public interface BatchWordInfoCallback {
+        void onProgress(int completed, int total);
+        void onBatchComplete(List<Word> words, List<String> failedWords);
+    }
+
+    // 流式模式下先按字段回调部分结果，最后仍会回调 onWordInfoReceived
+    public interface WordInfoProgressCallback extends WordInfoCallback {
+        void onWordInfoPartial(Word partial);
+    }
+
     public interface PronunciationCheckCallback {
         void onPronunciationChecked(boolean isCorrect);
         void onError(String error);
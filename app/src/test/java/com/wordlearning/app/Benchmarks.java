@@ -0,0 +1,58 @@
+package com.wordlearning.app;
+
+import com.wordlearning.app.model.Word;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 基准测试的公共工具。默认用小数据量跑，随单元测试一起执行，只验证流程和结果；
+ * 加上 -Dbenchmark.full=true 时换成请求里给出的完整数据量，结果以 [benchmark] 开头打印。
+ */
+public final class Benchmarks {
+    private static final String[] SYLLABLES = {"ab", "ex", "con", "tra", "pre", "lu", "mi", "or", "ven", "sta", "qui", "dor"};
+
+    private Benchmarks() {
+    }
+
+    public static boolean full() {
+        return Boolean.getBoolean("benchmark.full");
+    }
+
+    public static int size(int quick, int full) {
+        return full() ? full : quick;
+    }
+
+    public static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+
+    public static void report(String format, Object... args) {
+        System.out.println("[benchmark] " + String.format(Locale.ROOT, format, args));
+    }
+
+    // 生成 count 个互不相同的单词，释义和例句长度接近真实词库
+    public static List<Word> words(int count, long seed) {
+        Random random = new Random(seed);
+        List<Word> words = new ArrayList<>(count);
+        long createdAt = 1600000000000L;
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                text.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            text.append(Integer.toString(i, 36));
+            Word word = new Word(text.toString());
+            word.setPronunciation("/" + text + "/");
+            word.setMeaning("释义" + i + "：表示某种动作或状态");
+            word.setExampleSentence("This is an example sentence for " + text + " number " + i + ".");
+            word.setCreatedAt(createdAt + i * 1000L);
+            word.setLearned(random.nextInt(4) == 0);
+            words.add(word);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,21 @@
+package com.wordlearning.app.database;
+
+/**
+ * 数据库基准测试共用的等待逻辑。
+ */
+final class BenchmarkDatabases {
+    private BenchmarkDatabases() {
+    }
+
+    // 索引类迁移在数据库就绪后才在后台执行，测量查询之前等它们完成
+    static void awaitOnlineMigrations(DatabaseHelper db) throws InterruptedException {
+        int latest = DatabaseHelper.buildMigrator().getLatestVersion();
+        long deadline = System.currentTimeMillis() + 60000;
+        while (db.getSchemaVersion() < latest) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Online migrations did not finish, schema v" + db.getSchemaVersion());
+            }
+            Thread.sleep(20);
+        }
+    }
+}
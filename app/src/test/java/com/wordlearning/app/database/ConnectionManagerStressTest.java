@@ -0,0 +1,184 @@
+package com.wordlearning.app.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionManagerStressTest {
+    private static final int READERS = 8;
+    private static final int WRITERS = 2;
+    private static final int WRITES_PER_WRITER = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ConnectionManager connections;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws SQLException {
+        String file = new File(folder.getRoot(), "stress").getPath();
+        connections = new ConnectionManager("jdbc:h2:" + file, "sa", "", 2);
+        connections.write(connection -> {
+            Statement stmt = connection.createStatement();
+            stmt.execute("CREATE TABLE counter (id INT PRIMARY KEY, hits INT NOT NULL)");
+            stmt.execute("INSERT INTO counter VALUES (1, 0)");
+            stmt.close();
+            return null;
+        });
+        executor = Executors.newFixedThreadPool(READERS + WRITERS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        connections.close();
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentReadersAndWritersSeeCommittedValues() throws Exception {
+        AtomicInteger writersLeft = new AtomicInteger(WRITERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < WRITES_PER_WRITER; n++) {
+                    connections.transaction(connection -> {
+                        PreparedStatement stmt = connections.prepare(connection,
+                                "UPDATE counter SET hits = hits + 1 WHERE id = 1");
+                        return stmt.executeUpdate();
+                    });
+                }
+                writersLeft.decrementAndGet();
+                return null;
+            }));
+        }
+        // 读连接比读线程少，读线程需要排队等待归还的连接
+        for (int i = 0; i < READERS; i++) {
+            futures.add(executor.submit(() -> {
+                int last = 0;
+                while (writersLeft.get() > 0) {
+                    int value = readCounter();
+                    assertTrue("counter went backwards: " + value + " < " + last, value >= last);
+                    last = value;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(20, TimeUnit.SECONDS);
+        }
+        assertEquals(WRITERS * WRITES_PER_WRITER, readCounter());
+    }
+
+    @Test(timeout = 30000)
+    public void closeWakesReadersWaitingForAConnection() throws Exception {
+        CountDownLatch held = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        // 占住全部两个读连接
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> connections.read(connection -> {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+        }
+        assertTrue(held.await(5, TimeUnit.SECONDS));
+
+        List<Future<Integer>> waiting = new ArrayList<>();
+        for (int i = 0; i < READERS - 2; i++) {
+            waiting.add(executor.submit(this::readCounter));
+        }
+        Thread.sleep(200);
+        connections.close();
+        release.countDown();
+
+        for (Future<Integer> future : waiting) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("read after close should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof SQLException);
+            }
+        }
+        try {
+            readCounter();
+            fail("read after close should fail");
+        } catch (SQLException expected) {
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void closeWhileReadsAreInFlight() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger successes = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(READERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                while (true) {
+                    try {
+                        readCounter();
+                        successes.incrementAndGet();
+                    } catch (SQLException e) {
+                        failures.incrementAndGet();
+                        return;
+                    }
+                }
+            }));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        connections.close();
+
+        // 每个读线程都要在关闭后结束，不能卡在等待连接上
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(READERS, failures.get());
+        assertTrue(successes.get() > 0);
+        try {
+            readCounter();
+            fail("read after close should fail");
+        } catch (SQLException expected) {
+        }
+    }
+
+    private int readCounter() throws SQLException {
+        return connections.read(connection -> {
+            PreparedStatement stmt = connections.prepare(connection, "SELECT hits FROM counter WHERE id = 1");
+            ResultSet rs = stmt.executeQuery();
+            try {
+                rs.next();
+                return rs.getInt(1);
+            } finally {
+                rs.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.wordlearning.app.database;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class CountCacheTest {
+    @Test
+    public void countLoadedBeforeInsertIsDropped() {
+        CountCache cache = new CountCache();
+        long loadedAt = cache.wordGeneration();
+        // 查询还没返回时另一个线程插入了单词
+        cache.addWords(1, cache.wordGeneration());
+        cache.setWordCount(10, loadedAt);
+        assertFalse(CountCache.isKnown(cache.getWordCount()));
+
+        cache.setWordCount(11, cache.wordGeneration());
+        assertEquals(11, cache.getWordCount());
+    }
+
+    @Test
+    public void insertOverlappingACountInvalidatesInsteadOfDoubleCounting() {
+        CountCache cache = new CountCache();
+        long writeStarted = cache.wordGeneration();
+        // 查询在插入提交后执行，结果已经包含这条单词
+        cache.setWordCount(11, cache.wordGeneration());
+        cache.addWords(1, writeStarted);
+        assertFalse(CountCache.isKnown(cache.getWordCount()));
+    }
+
+    @Test
+    public void insertAfterCountIsApplied() {
+        CountCache cache = new CountCache();
+        cache.setWordCount(10, cache.wordGeneration());
+        cache.addWords(2, cache.wordGeneration());
+        assertEquals(12, cache.getWordCount());
+    }
+
+    @Test
+    public void mistakeCountsFollowTheSameRules() {
+        CountCache cache = new CountCache();
+        long loadedAt = cache.mistakeGeneration();
+        cache.invalidateMistakes();
+        cache.setUnresolvedMistakeCount(3, loadedAt);
+        Map<String, Long> byType = new HashMap<>();
+        byType.put("meaning", 3L);
+        cache.setUnresolvedByType(byType, loadedAt);
+        assertFalse(CountCache.isKnown(cache.getUnresolvedMistakeCount()));
+        assertNull(cache.getUnresolvedByType());
+
+        long generation = cache.mistakeGeneration();
+        cache.setUnresolvedMistakeCount(3, generation);
+        cache.setUnresolvedByType(byType, cache.mistakeGeneration());
+        cache.addMistakes(Arrays.asList("meaning", null), cache.mistakeGeneration());
+        assertEquals(5, cache.getUnresolvedMistakeCount());
+        assertEquals(Long.valueOf(4), cache.getUnresolvedByType().get("meaning"));
+        assertEquals(Long.valueOf(1), cache.getUnresolvedByType().get(null));
+
+        long writeStarted = cache.mistakeGeneration();
+        cache.addMistakes(Collections.singletonList("meaning"), cache.mistakeGeneration());
+        cache.resolveAllMistakes(writeStarted);
+        assertFalse(CountCache.isKnown(cache.getUnresolvedMistakeCount()));
+
+        cache.resolveAllMistakes(cache.mistakeGeneration());
+        assertEquals(0, cache.getUnresolvedMistakeCount());
+    }
+
+    @Test
+    public void resolvedMistakesAreSubtractedByType() {
+        CountCache cache = new CountCache();
+        Map<String, Long> byType = new HashMap<>();
+        byType.put("meaning", 3L);
+        byType.put("", 1L);
+        cache.setUnresolvedMistakeCount(4, cache.mistakeGeneration());
+        cache.setUnresolvedByType(byType, cache.mistakeGeneration());
+
+        Map<String, Long> resolved = new HashMap<>();
+        resolved.put("meaning", 2L);
+        resolved.put("", 1L);
+        cache.resolveMistakes(resolved, cache.mistakeGeneration());
+        assertEquals(1, cache.getUnresolvedMistakeCount());
+        assertEquals(Long.valueOf(1), cache.getUnresolvedByType().get("meaning"));
+        assertFalse(cache.getUnresolvedByType().containsKey(""));
+
+        // 解决期间有别的错词写入，扣减的基数已经不对
+        long writeStarted = cache.mistakeGeneration();
+        cache.addMistakes(Collections.singletonList("meaning"), cache.mistakeGeneration());
+        cache.resolveMistakes(resolved, writeStarted);
+        assertFalse(CountCache.isKnown(cache.getUnresolvedMistakeCount()));
+        assertNull(cache.getUnresolvedByType());
+    }
+}
@@ -0,0 +1,69 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DatabaseLifecycleTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void closeDuringOpenDoesNotStrandWaiters() throws Exception {
+        String file = new File(folder.getRoot(), "word_learning.db").getPath();
+        for (int round = 0; round < 5; round++) {
+            // 构造函数在后台开始打开数据库，读操作在打开期间排队等待
+            db = new DatabaseHelper(file, StorageProfile.FAST);
+            List<Future<Long>> waiting = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                waiting.add(executor.submit(() -> db.countWords()));
+            }
+            db.close();
+            for (Future<Long> future : waiting) {
+                // 等待者不能卡住；拿到连接后正好被关闭的查询按出错返回 0
+                long count = future.get(10, TimeUnit.SECONDS);
+                assertTrue("count " + count, count == round || count == 0);
+            }
+            db.insertWord(new Word("word" + round));
+            db.close();
+            assertTrue(db.getCloseCount() >= 1);
+            db = null;
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void closeWaitsForPendingOpen() throws Exception {
+        String file = new File(folder.getRoot(), "word_learning.db").getPath();
+        db = new DatabaseHelper(file, StorageProfile.FAST);
+        db.close();
+        // 打开结束后才关闭，数据库不会在 close() 返回之后又变成打开状态
+        assertEquals(1, db.getOpenCount());
+        assertEquals(1, db.getCloseCount());
+        assertEquals(false, db.isReady());
+    }
+}
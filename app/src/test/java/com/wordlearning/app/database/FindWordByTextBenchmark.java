@@ -0,0 +1,84 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * user-001：按单词查找走 word_lower 索引，对比原来每次读出整张表再逐行比较。
+ */
+public class FindWordByTextBenchmark {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void indexedLookupVersusFullScan() throws Exception {
+        int count = Benchmarks.size(2000, 100000);
+        int lookups = Benchmarks.size(20, 1000);
+        // 全表扫描每次都要读出整张表，只取一部分查询测平均值
+        int scans = Benchmarks.size(10, 20);
+        db = new DatabaseHelper(new File(folder.getRoot(), "word_learning.db").getPath(), StorageProfile.FAST);
+        List<Word> words = Benchmarks.words(count, 1);
+        db.insertWords(words);
+        BenchmarkDatabases.awaitOnlineMigrations(db);
+
+        Random random = new Random(2);
+        String[] queries = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            // 大小写和首尾空格都不同，仍要能找到
+            queries[i] = "  " + words.get(random.nextInt(count)).getWord().toUpperCase(Locale.ROOT) + " ";
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < scans; i++) {
+            Word found = scan(db.getAllWords(), queries[i]);
+            assertNotNull(found);
+        }
+        long scanMs = Benchmarks.elapsedMs(start);
+
+        start = System.nanoTime();
+        for (String query : queries) {
+            Word found = db.findWordByText(query);
+            assertNotNull(found);
+            assertEquals(query.trim().toLowerCase(Locale.ROOT), found.getWord().toLowerCase(Locale.ROOT));
+        }
+        long indexedMs = Benchmarks.elapsedMs(start);
+        assertNull(db.findWordByText("no-such-word"));
+
+        Benchmarks.report("findWordByText over %d words: full scan %.2f ms/lookup, indexed %.3f ms/lookup",
+                count, scanMs / (double) scans, indexedMs / (double) lookups);
+    }
+
+    // 改动前 ReviewService.getWordByString 的做法
+    private static Word scan(List<Word> all, String query) {
+        String text = query.trim();
+        for (Word word : all) {
+            if (word.getWord().equalsIgnoreCase(text)) {
+                return word;
+            }
+        }
+        return null;
+    }
+}
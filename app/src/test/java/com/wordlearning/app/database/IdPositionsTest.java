@@ -0,0 +1,40 @@
+package com.wordlearning.app.database;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class IdPositionsTest {
+
+    // 随机增删改，结果与 HashMap 对照；id 取值范围小，探测链上的删除和挪动会反复出现
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        WordSampler.IdPositions positions = new WordSampler.IdPositions();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 200000; i++) {
+            long id = random.nextInt(5000) - 100;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                positions.put(id, i);
+                expected.put(id, i);
+            } else if (op == 1) {
+                Integer removed = expected.remove(id);
+                assertEquals(removed == null ? -1 : removed, positions.remove(id));
+            } else {
+                Integer value = expected.get(id);
+                assertEquals(value == null ? -1 : value, positions.get(id));
+            }
+        }
+        assertEquals(expected.size(), positions.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), positions.get(entry.getKey()));
+        }
+        positions.clear();
+        assertEquals(-1, positions.get(expected.keySet().iterator().next()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-002：insertWords 在一个事务里分块批量插入，对比原来每行单独提交的 insertWord。
+ * 用 DURABLE 配置，每次提交都立即落盘，和逐行导入时的实际开销一致。
+ */
+public class InsertWordsBenchmark {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void batchInsertVersusPerRow() throws Exception {
+        int[] sizes = Benchmarks.full() ? new int[]{1000, 10000, 100000} : new int[]{200, 1000};
+        for (int count : sizes) {
+            List<Word> words = Benchmarks.words(count, count);
+
+            db = open("per_row_" + count);
+            long start = System.nanoTime();
+            for (Word word : words) {
+                assertTrue(db.insertWord(word) > 0);
+            }
+            long perRowMs = Benchmarks.elapsedMs(start);
+            assertEquals(count, db.countWords());
+            db.close();
+
+            db = open("batch_" + count);
+            start = System.nanoTime();
+            long[] ids = db.insertWords(words);
+            long batchMs = Benchmarks.elapsedMs(start);
+            assertEquals(count, ids.length);
+            Set<Long> distinct = new HashSet<>();
+            for (long id : ids) {
+                assertTrue(id > 0);
+                distinct.add(id);
+            }
+            assertEquals(count, distinct.size());
+            assertEquals(count, db.countWords());
+            assertEquals(words.get(count - 1).getWord(), db.getWordById(ids[count - 1]).getWord());
+            db.close();
+            db = null;
+
+            Benchmarks.report("insert %d words: per row %d ms (%.0f rows/s), insertWords %d ms (%.0f rows/s)",
+                    count, perRowMs, rate(count, perRowMs), batchMs, rate(count, batchMs));
+        }
+    }
+
+    // 打开和建表在后台完成，计时前先等数据库就绪
+    private DatabaseHelper open(String name) throws InterruptedException {
+        DatabaseHelper helper = new DatabaseHelper(new File(folder.getRoot(), name + ".db").getPath(), StorageProfile.DURABLE);
+        BenchmarkDatabases.awaitOnlineMigrations(helper);
+        return helper;
+    }
+
+    private static double rate(int rows, long ms) {
+        return rows * 1000.0 / Math.max(1, ms);
+    }
+}
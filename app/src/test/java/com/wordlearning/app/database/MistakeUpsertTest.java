@@ -0,0 +1,149 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.MistakeWord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class MistakeUpsertTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String databaseFile;
+    private DatabaseHelper db;
+
+    @Before
+    public void setUp() {
+        databaseFile = new File(folder.getRoot(), "word_learning.db").getPath();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void upgradeMergesDuplicatesIncludingNullType() throws Exception {
+        try (Connection connection = open()) {
+            Statement stmt = connection.createStatement();
+            TestSchemas.createV1(stmt);
+            stmt.execute("INSERT INTO words (word, created_at) VALUES ('apple', 1)");
+            stmt.execute("INSERT INTO mistake_words (word_id, word, mistake_type, added_at, mistake_count, is_resolved) VALUES " +
+                    "(1, 'apple', NULL, 10, 1, FALSE), (1, 'apple', NULL, 20, 2, TRUE), " +
+                    "(1, 'apple', 'meaning', 30, 1, TRUE), (1, 'apple', 'meaning', 40, 4, TRUE)");
+        }
+
+        db = new DatabaseHelper(databaseFile, StorageProfile.DURABLE);
+        List<MistakeWord> open = db.getAllMistakeWords();
+        assertEquals(1, open.size());
+        MistakeWord kept = open.get(0);
+        assertEquals("", kept.getMistakeType());
+        assertEquals(3, kept.getMistakeCount());
+        assertEquals(20, kept.getAddedAt());
+        assertEquals(1, db.countUnresolvedMistakes());
+        db.close();
+        db = null;
+
+        try (Connection connection = open()) {
+            ResultSet rs = connection.createStatement().executeQuery(
+                    "SELECT mistake_type, mistake_count, added_at, is_resolved FROM mistake_words ORDER BY id");
+            assertRow(rs, "", 3, 20, false);
+            assertRow(rs, "meaning", 5, 40, true);
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    public void recordMistakeMergesNullTypeRows() {
+        db = new DatabaseHelper(databaseFile, StorageProfile.DURABLE);
+        db.recordMistake(mistake(1, null, 100));
+        db.recordMistake(mistake(1, null, 200));
+        db.recordMistake(mistake(1, "meaning", 300));
+
+        List<MistakeWord> open = db.getAllMistakeWords();
+        assertEquals(2, open.size());
+        MistakeWord nullType = open.get(0).getMistakeType().isEmpty() ? open.get(0) : open.get(1);
+        assertEquals(2, nullType.getMistakeCount());
+        assertEquals(200, nullType.getAddedAt());
+
+        long[] ids = db.insertMistakeWords(java.util.Arrays.asList(mistake(1, null, 400), mistake(2, null, 500)));
+        assertEquals(nullType.getId(), ids[0]);
+        assertEquals(3, db.getAllMistakeWords().size());
+        assertEquals(2, db.resolveMistakesByType(null));
+        assertEquals(1, db.getAllMistakeWords().size());
+    }
+
+    @Test
+    public void recordMistakeUpdatesCachedCountWithoutRecounting() throws Exception {
+        db = new DatabaseHelper(databaseFile, StorageProfile.DURABLE);
+        db.recordMistake(mistake(1, "meaning", 100));
+        assertEquals(1, db.countUnresolvedMistakes());
+        assertEquals(Long.valueOf(1), db.getUnresolvedMistakeCountsByType().get("meaning"));
+
+        // 绕过 DatabaseHelper 直接插入一行：之后的计数若重新 COUNT 就会把它算进去
+        try (Connection connection = open()) {
+            connection.createStatement().execute("INSERT INTO mistake_words (word_id, word, mistake_type, added_at, " +
+                    "mistake_count, is_resolved) VALUES (99, 'hidden', 'meaning', 1, 1, FALSE)");
+        }
+
+        db.recordMistake(mistake(1, "meaning", 200));
+        assertEquals(1, db.countUnresolvedMistakes());
+        db.recordMistake(mistake(2, "sentence", 300));
+        db.recordMistake(mistake(3, null, 300));
+        assertEquals(3, db.countUnresolvedMistakes());
+        assertEquals(Long.valueOf(1), db.getUnresolvedMistakeCountsByType().get("sentence"));
+        assertEquals(Long.valueOf(1), db.getUnresolvedMistakeCountsByType().get(""));
+
+        // 解决操作按改到的行扣减，同样不重新 COUNT；之后重新打开的错词和批量插入仍按增量计数
+        db.resolveMistakeWord(2);
+        assertEquals(2, db.countUnresolvedMistakes());
+        assertNull(db.getUnresolvedMistakeCountsByType().get("sentence"));
+        db.recordMistake(mistake(2, "sentence", 400));
+        db.insertMistakeWords(java.util.Arrays.asList(mistake(4, "meaning", 500), mistake(4, "meaning", 600),
+                mistake(1, "meaning", 700)));
+        assertEquals(4, db.countUnresolvedMistakes());
+        assertEquals(Long.valueOf(2), db.getUnresolvedMistakeCountsByType().get("meaning"));
+        assertEquals(5, db.getAllMistakeWords().size());
+
+        assertEquals(1, db.resolveMistakesForWords(java.util.Collections.singletonList(4L)));
+        assertEquals(1, db.resolveMistakesByType(null));
+        assertEquals(2, db.countUnresolvedMistakes());
+        assertEquals(Long.valueOf(1), db.getUnresolvedMistakeCountsByType().get("meaning"));
+        assertNull(db.getUnresolvedMistakeCountsByType().get(""));
+    }
+
+    private Connection open() throws SQLException {
+        return DriverManager.getConnection("jdbc:h2:" + databaseFile, "sa", "");
+    }
+
+    private static MistakeWord mistake(long wordId, String type, long addedAt) {
+        MistakeWord mistake = new MistakeWord(wordId, "word" + wordId, type);
+        mistake.setAddedAt(addedAt);
+        return mistake;
+    }
+
+    private static void assertRow(ResultSet rs, String type, int count, long addedAt, boolean resolved) throws SQLException {
+        assertEquals(true, rs.next());
+        assertEquals(type, rs.getString(1));
+        assertEquals(count, rs.getInt(2));
+        assertEquals(addedAt, rs.getLong(3));
+        assertEquals(resolved, rs.getBoolean(4));
+    }
+}
@@ -0,0 +1,119 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-003：WordSampler 抽取每日单词，对比原来的 ORDER BY RANDOM() LIMIT ?。
+ * 直接在内存库里用 SYSTEM_RANGE 造表，100 万行也能很快建好；只比较取出 k 个单词的耗时。
+ */
+public class RandomWordsBenchmark {
+    private static final int DAILY_WORDS = 20;
+
+    private Connection connection;
+
+    @After
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void samplerVersusOrderByRandom() throws Exception {
+        int[] sizes = Benchmarks.full() ? new int[]{10000, 100000, 1000000} : new int[]{1000, 10000};
+        int rounds = Benchmarks.size(10, 20);
+        for (int count : sizes) {
+            connection = DriverManager.getConnection("jdbc:h2:mem:random" + count);
+            Statement stmt = connection.createStatement();
+            stmt.execute("CREATE TABLE words (id BIGINT AUTO_INCREMENT PRIMARY KEY, word VARCHAR(255), " +
+                    "meaning CLOB, is_learned BOOLEAN)");
+            // 四分之一的单词已学会
+            stmt.execute("INSERT INTO words (word, meaning, is_learned) SELECT 'word' || X, " +
+                    "'释义' || X || '：表示某种动作或状态', MOD(X, 4) = 0 FROM SYSTEM_RANGE(1, " + count + ")");
+            stmt.close();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                assertEquals(DAILY_WORDS, orderByRandom().size());
+            }
+            long orderByMs = Benchmarks.elapsedMs(start);
+
+            WordSampler sampler = new WordSampler(3, WordSampler.DEFAULT_REPEAT_WINDOW);
+            start = System.nanoTime();
+            List<Long> first = sampler.sample(connection, DAILY_WORDS);
+            long loadMs = Benchmarks.elapsedMs(start);
+            assertUnlearned(first);
+
+            // 重复窗口内不会再抽到上一轮的单词
+            Set<Long> window = new HashSet<>(first);
+            for (Long id : sampler.sample(connection, DAILY_WORDS)) {
+                assertFalse(window.contains(id));
+            }
+
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                List<Long> ids = sampler.sample(connection, DAILY_WORDS);
+                assertEquals(DAILY_WORDS, ids.size());
+                assertEquals(DAILY_WORDS, fetch(ids));
+            }
+            long samplerMs = Benchmarks.elapsedMs(start);
+            assertUnlearned(sampler.sample(connection, DAILY_WORDS));
+
+            connection.close();
+            connection = null;
+            Benchmarks.report("random %d of %d words: ORDER BY RANDOM() %.2f ms/draw, sampler %.3f ms/draw (first load %d ms)",
+                    DAILY_WORDS, count, orderByMs / (double) rounds, samplerMs / (double) rounds, loadMs);
+        }
+    }
+
+    private List<Long> orderByRandom() throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("SELECT id, word, meaning FROM words ORDER BY RANDOM() LIMIT ?");
+        stmt.setInt(1, DAILY_WORDS);
+        ResultSet rs = stmt.executeQuery();
+        List<Long> ids = new ArrayList<>();
+        while (rs.next()) {
+            ids.add(rs.getLong(1));
+            rs.getString(3);
+        }
+        stmt.close();
+        return ids;
+    }
+
+    // 和 DatabaseHelper.getRandomWords 一样按 id 取回整行
+    private int fetch(List<Long> ids) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("SELECT id, word, meaning FROM words WHERE id = ANY(?)");
+        stmt.setArray(1, connection.createArrayOf("BIGINT", ids.toArray(new Long[0])));
+        ResultSet rs = stmt.executeQuery();
+        int rows = 0;
+        while (rs.next()) {
+            rs.getString(3);
+            rows++;
+        }
+        stmt.close();
+        return rows;
+    }
+
+    private void assertUnlearned(List<Long> ids) {
+        for (Long id : ids) {
+            assertTrue("learned word " + id, id % 4 != 0);
+        }
+    }
+}
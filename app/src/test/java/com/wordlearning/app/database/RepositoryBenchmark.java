@@ -0,0 +1,95 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-015：同一组操作（导入、每日抽词、复习更新、记录错词）分别跑在各个存储实现上。
+ * SQLiteRepository 依赖 android.database.sqlite，JVM 单元测试里只有返回默认值的桩实现，
+ * 这里只比较 H2 和内存实现；SQLite 与 H2 的对比在 androidTest 的 RepositoryDeviceBenchmark。
+ */
+public class RepositoryBenchmark {
+    private static final int DAILY_WORDS = 20;
+    private static final String[] TYPES = {"meaning", "spelling", "pronunciation"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void sameWorkloadOnEachBackend() throws Exception {
+        int count = Benchmarks.size(2000, 100000);
+        int days = Benchmarks.size(10, 100);
+
+        db = new DatabaseHelper(new File(folder.getRoot(), "word_learning.db").getPath(), StorageProfile.BALANCED);
+        BenchmarkDatabases.awaitOnlineMigrations(db);
+        run("h2", db, db, count, days);
+        db.close();
+        db = null;
+
+        InMemoryRepository memory = new InMemoryRepository();
+        run("memory", memory, memory, count, days);
+    }
+
+    private void run(String backend, WordRepository words, MistakeRepository mistakes, int count, int days) {
+        List<Word> bank = Benchmarks.words(count, 15);
+        long start = System.nanoTime();
+        long[] ids = words.insertWords(bank);
+        long importMs = Benchmarks.elapsedMs(start);
+        assertEquals(count, ids.length);
+        assertEquals(count, words.countWords());
+
+        long sampleNanos = 0;
+        long reviewNanos = 0;
+        long mistakeNanos = 0;
+        long now = 1700000000000L;
+        for (int day = 0; day < days; day++) {
+            start = System.nanoTime();
+            List<Word> today = words.getRandomWords(DAILY_WORDS);
+            sampleNanos += System.nanoTime() - start;
+            assertEquals(DAILY_WORDS, today.size());
+
+            start = System.nanoTime();
+            for (Word word : today) {
+                word.setReviewCount(word.getReviewCount() + 1);
+                word.setLastReviewTime(now + day * 86400000L);
+                words.updateWord(word);
+            }
+            reviewNanos += System.nanoTime() - start;
+
+            // 每天答错其中四分之一
+            start = System.nanoTime();
+            for (int i = 0; i < today.size(); i += 4) {
+                Word word = today.get(i);
+                mistakes.recordMistake(new MistakeWord(word.getId(), word.getWord(), TYPES[day % TYPES.length]));
+            }
+            mistakeNanos += System.nanoTime() - start;
+        }
+        assertTrue(mistakes.countUnresolvedMistakes() > 0);
+
+        Benchmarks.report("%s, %d words: import %d ms, daily sample %.2f ms, review update %.3f ms/word, " +
+                        "record mistake %.3f ms/mistake", backend, count, importMs,
+                sampleNanos / 1e6 / days, reviewNanos / 1e6 / (days * DAILY_WORDS),
+                mistakeNanos / 1e6 / (days * DAILY_WORDS / 4));
+    }
+}
@@ -0,0 +1,79 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * user-008：清空错题本时一条 UPDATE 解决全部错词，对比原来先读出所有错词再逐条 resolveMistakeWord。
+ */
+public class ResolveMistakesBenchmark {
+    private static final String[] TYPES = {"meaning", "spelling", "pronunciation", null};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void setBasedResolveVersusPerRow() throws Exception {
+        int count = Benchmarks.size(2000, 50000);
+
+        db = open("per_row", count);
+        long start = System.nanoTime();
+        // 改动前 MistakeBookService.clearAllMistakes 的做法
+        for (MistakeWord mistakeWord : db.getAllMistakeWords()) {
+            db.resolveMistakeWord(mistakeWord.getWordId());
+        }
+        long perRowMs = Benchmarks.elapsedMs(start);
+        assertEquals(0, db.countUnresolvedMistakes());
+        db.close();
+
+        db = open("set_based", count);
+        start = System.nanoTime();
+        assertEquals(count, db.resolveAllMistakes());
+        long setBasedMs = Benchmarks.elapsedMs(start);
+        assertEquals(0, db.countUnresolvedMistakes());
+        assertEquals(0, db.resolveAllMistakes());
+        db.close();
+        db = null;
+
+        Benchmarks.report("clear %d mistakes: per row %d ms, resolveAllMistakes %d ms",
+                count, perRowMs, setBasedMs);
+    }
+
+    // 每个单词一条未解决的错词，类型轮流取值（含 NULL）
+    private DatabaseHelper open(String name, int count) throws InterruptedException {
+        DatabaseHelper helper = new DatabaseHelper(new File(folder.getRoot(), name + ".db").getPath(), StorageProfile.DURABLE);
+        List<Word> words = Benchmarks.words(count, 8);
+        long[] ids = helper.insertWords(words);
+        List<MistakeWord> mistakes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MistakeWord mistake = new MistakeWord(ids[i], words.get(i).getWord(), TYPES[i % TYPES.length]);
+            mistake.setAddedAt(words.get(i).getCreatedAt());
+            mistakes.add(mistake);
+        }
+        helper.insertMistakeWords(mistakes);
+        BenchmarkDatabases.awaitOnlineMigrations(helper);
+        assertEquals(count, helper.countUnresolvedMistakes());
+        return helper;
+    }
+}
@@ -0,0 +1,185 @@
+package com.wordlearning.app.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SchemaMigratorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String url;
+    private CountingConnections connections;
+
+    // 记录迁移过程中打开的写事务，结构已是最新时不应有任何写入
+    private static class CountingConnections extends ConnectionManager {
+        final AtomicInteger writes = new AtomicInteger();
+
+        CountingConnections(String url) throws SQLException {
+            super(url, "sa", "", 1);
+        }
+
+        @Override
+        <T> T write(SqlWork<T> work) throws SQLException {
+            writes.incrementAndGet();
+            return super.write(work);
+        }
+
+        @Override
+        <T> T transaction(SqlWork<T> work) throws SQLException {
+            writes.incrementAndGet();
+            return super.transaction(work);
+        }
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        url = "jdbc:h2:" + new File(folder.getRoot(), "word_learning.db").getPath();
+        connections = new CountingConnections(url);
+    }
+
+    @After
+    public void tearDown() {
+        connections.close();
+    }
+
+    @Test
+    public void upgradesPopulatedV1SchemaAndKeepsData() throws SQLException {
+        connections.write(connection -> {
+            Statement stmt = connection.createStatement();
+            TestSchemas.createV1(stmt);
+            stmt.execute("INSERT INTO words (word, meaning, created_at, last_review_time, review_count, is_learned) VALUES " +
+                    "(' Apple ', '苹果', 100, 1000, 2, TRUE), ('banana', '香蕉', 200, NULL, 0, FALSE)");
+            stmt.execute("INSERT INTO mistake_words (word_id, word, mistake_type, added_at, mistake_count, is_resolved) VALUES " +
+                    "(1, 'Apple', 'meaning', 300, 2, FALSE)");
+            stmt.close();
+            return null;
+        });
+
+        SchemaMigrator migrator = DatabaseHelper.buildMigrator();
+        int applied = migrator.migrate(connections, true);
+        assertEquals(migrator.getLatestVersion(), applied);
+        assertEquals(migrator.getLatestVersion(), migrator.getCurrentVersion(connections));
+
+        connections.read(connection -> {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT word, meaning, review_count, is_learned, word_lower, next_due_at, updated_at " +
+                    "FROM words ORDER BY id");
+            assertTrue(rs.next());
+            assertEquals(" Apple ", rs.getString(1));
+            assertEquals("苹果", rs.getString(2));
+            assertEquals(2, rs.getInt(3));
+            assertTrue(rs.getBoolean(4));
+            assertEquals("apple", rs.getString(5));
+            assertEquals(1000 + DatabaseHelper.REVIEW_INTERVAL, rs.getLong(6));
+            assertEquals(1000, rs.getLong(7));
+            assertTrue(rs.next());
+            assertEquals("banana", rs.getString(1));
+            assertEquals(0, rs.getLong(6));
+            assertEquals(200, rs.getLong(7));
+            assertFalse(rs.next());
+
+            rs = stmt.executeQuery("SELECT word_id, mistake_type, added_at, mistake_count, is_resolved, updated_at FROM mistake_words");
+            assertTrue(rs.next());
+            assertEquals(1, rs.getLong(1));
+            assertEquals("meaning", rs.getString(2));
+            assertEquals(300, rs.getLong(3));
+            assertEquals(2, rs.getInt(4));
+            assertFalse(rs.getBoolean(5));
+            assertEquals(300, rs.getLong(6));
+            assertFalse(rs.next());
+            stmt.close();
+            return null;
+        });
+    }
+
+    @Test
+    public void secondStartupOnCurrentSchemaRunsNoDdl() throws SQLException {
+        DatabaseHelper.buildMigrator().migrate(connections, true);
+
+        connections.writes.set(0);
+        SchemaMigrator migrator = DatabaseHelper.buildMigrator();
+        assertEquals(0, migrator.migrate(connections, false));
+        assertEquals(0, migrator.migrate(connections, true));
+        assertEquals(0, connections.writes.get());
+    }
+
+    @Test
+    public void partiallyAppliedStepIsRerun() throws SQLException {
+        // 模拟 v2 执行到一半崩溃：ADD COLUMN 已经隐式提交，回填和版本记录都没有写入
+        connections.write(connection -> {
+            Statement stmt = connection.createStatement();
+            TestSchemas.createV1(stmt);
+            stmt.execute("INSERT INTO words (word, created_at) VALUES ('Apple', 100)");
+            stmt.execute("CREATE TABLE schema_version (version INT PRIMARY KEY, description VARCHAR(255), applied_at BIGINT)");
+            stmt.execute("INSERT INTO schema_version VALUES (1, 'create words and mistake_words', 0)");
+            stmt.execute("ALTER TABLE words ADD COLUMN word_lower VARCHAR(255)");
+            stmt.close();
+            return null;
+        });
+
+        SchemaMigrator migrator = DatabaseHelper.buildMigrator();
+        assertEquals(1, migrator.getCurrentVersion(connections));
+        assertEquals(migrator.getLatestVersion() - 1, migrator.migrate(connections, true));
+        assertEquals(migrator.getLatestVersion(), migrator.getCurrentVersion(connections));
+
+        String lower = connections.read(connection -> {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT word_lower FROM words");
+            rs.next();
+            String value = rs.getString(1);
+            stmt.close();
+            return value;
+        });
+        assertEquals("apple", lower);
+    }
+
+    @Test
+    public void failedStepIsRetriedOnNextStartup() throws SQLException {
+        AtomicInteger firstRuns = new AtomicInteger();
+        AtomicInteger secondRuns = new AtomicInteger();
+        SchemaMigrator migrator = new SchemaMigrator()
+                .add(1, "create a", connection -> {
+                    firstRuns.incrementAndGet();
+                    execute(connection, "CREATE TABLE IF NOT EXISTS a (id INT)");
+                })
+                .add(2, "create b", connection -> {
+                    execute(connection, "CREATE TABLE IF NOT EXISTS b (id INT)");
+                    if (secondRuns.incrementAndGet() == 1) {
+                        throw new SQLException("Simulated crash");
+                    }
+                });
+
+        try {
+            migrator.migrate(connections, false);
+            fail("first migration should fail");
+        } catch (SQLException expected) {
+        }
+        assertEquals(1, migrator.getCurrentVersion(connections));
+
+        assertEquals(1, migrator.migrate(connections, false));
+        assertEquals(1, firstRuns.get());
+        assertEquals(2, secondRuns.get());
+        assertEquals(2, migrator.getCurrentVersion(connections));
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        Statement stmt = connection.createStatement();
+        stmt.execute(sql);
+        stmt.close();
+    }
+}
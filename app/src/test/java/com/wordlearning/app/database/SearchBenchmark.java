@@ -0,0 +1,135 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-019：searchByPrefix 和 searchByText 每页的耗时，对比读出整张表逐行匹配。
+ * 释义里带编号的查询只命中一两行；“动作”和 example 每行都命中，用来测翻页。
+ */
+public class SearchBenchmark {
+    private static final int PAGE = 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void prefixAndTextSearchVersusScan() throws Exception {
+        int count = Benchmarks.size(2000, 100000);
+        int queries = Benchmarks.size(20, 200);
+        db = new DatabaseHelper(new File(folder.getRoot(), "word_learning.db").getPath(), StorageProfile.FAST);
+        List<Word> words = Benchmarks.words(count, 19);
+        db.insertWords(words);
+        BenchmarkDatabases.awaitOnlineMigrations(db);
+
+        Random random = new Random(19);
+        String[] prefixes = new String[queries];
+        String[] texts = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            int n = random.nextInt(count);
+            prefixes[i] = words.get(n).getWord().substring(0, 4).toUpperCase(Locale.ROOT);
+            texts[i] = "释义" + n;
+        }
+
+        long start = System.nanoTime();
+        List<Word> all = db.getAllWords();
+        int scanned = 0;
+        for (Word word : all) {
+            if (word.getMeaning().contains(texts[0])) {
+                scanned++;
+            }
+        }
+        long scanMs = Benchmarks.elapsedMs(start);
+        assertTrue(scanned > 0);
+
+        // 首次全文搜索要加载倒排索引，单独计时
+        start = System.nanoTime();
+        assertFalse(db.searchByText(texts[0], 0, PAGE).isEmpty());
+        long indexLoadMs = Benchmarks.elapsedMs(start);
+
+        start = System.nanoTime();
+        for (String prefix : prefixes) {
+            for (Word word : db.searchByPrefix(prefix, null, PAGE)) {
+                assertTrue(word.getWord().toLowerCase(Locale.ROOT).startsWith(prefix.toLowerCase(Locale.ROOT)));
+            }
+        }
+        double prefixMs = Benchmarks.elapsedMs(start) / (double) queries;
+
+        start = System.nanoTime();
+        for (String text : texts) {
+            List<Word> found = db.searchByText(text, 0, PAGE);
+            assertFalse(text, found.isEmpty());
+            for (Word word : found) {
+                assertTrue(word.getMeaning().contains(text));
+            }
+        }
+        double textMs = Benchmarks.elapsedMs(start) / (double) queries;
+
+        start = System.nanoTime();
+        int pages = 0;
+        pages += pageThroughText("动作", 5);
+        pages += pageThroughText("example", 5);
+        pages += pageThroughPrefix(prefixes[0].substring(0, 2), 5);
+        double pageMs = Benchmarks.elapsedMs(start) / (double) pages;
+
+        Benchmarks.report("search %d words: full scan %d ms, prefix %.2f ms/query, text %.2f ms/query, " +
+                        "%.2f ms/page when paging, index load %d ms",
+                count, scanMs, prefixMs, textMs, pageMs, indexLoadMs);
+    }
+
+    // 按 id 倒序连续翻页，不重复
+    private int pageThroughText(String query, int pages) {
+        Set<Long> seen = new HashSet<>();
+        long before = 0;
+        for (int i = 0; i < pages; i++) {
+            List<Word> page = db.searchByText(query, before, PAGE);
+            assertEquals(PAGE, page.size());
+            for (Word word : page) {
+                assertTrue(before == 0 || word.getId() < before);
+                assertTrue(seen.add(word.getId()));
+            }
+            before = page.get(page.size() - 1).getId();
+        }
+        return pages;
+    }
+
+    // 按单词字母序连续翻页，不重复
+    private int pageThroughPrefix(String prefix, int pages) {
+        Set<Long> seen = new HashSet<>();
+        Word after = null;
+        for (int i = 0; i < pages; i++) {
+            List<Word> page = db.searchByPrefix(prefix, after, PAGE);
+            assertEquals(PAGE, page.size());
+            for (Word word : page) {
+                assertTrue(seen.add(word.getId()));
+            }
+            after = page.get(page.size() - 1);
+        }
+        return pages;
+    }
+}
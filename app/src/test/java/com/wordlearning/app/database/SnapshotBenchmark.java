@@ -0,0 +1,111 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-020：完整快照和增量快照的导出、导入耗时与文件大小。
+ * 每 10 个单词带一条错词；增量快照只包含导出之后改过的单词和错词。
+ */
+public class SnapshotBenchmark {
+    private static final String[] TYPES = {"meaning", "spelling", "pronunciation"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper source;
+    private DatabaseHelper target;
+
+    @After
+    public void tearDown() {
+        if (source != null) {
+            source.close();
+        }
+        if (target != null) {
+            target.close();
+        }
+    }
+
+    @Test
+    public void fullAndDeltaSnapshots() throws Exception {
+        int count = Benchmarks.size(2000, 100000);
+        int changed = count / 100;
+        String sourceFile = new File(folder.getRoot(), "source.db").getPath();
+        source = open(sourceFile);
+        List<Word> words = Benchmarks.words(count, 20);
+        long[] ids = source.insertWords(words);
+        List<MistakeWord> mistakes = new ArrayList<>();
+        for (int i = 0; i < count; i += 10) {
+            MistakeWord mistake = new MistakeWord(ids[i], words.get(i).getWord(), TYPES[i / 10 % TYPES.length]);
+            mistake.setAddedAt(words.get(i).getCreatedAt());
+            mistakes.add(mistake);
+        }
+        source.insertMistakeWords(mistakes);
+
+        File full = folder.newFile("full.snap");
+        SnapshotInfo exported = source.exportSnapshot(full);
+        assertEquals(count, exported.getWordCount());
+        assertEquals(mistakes.size(), exported.getMistakeCount());
+
+        // 导出之后复习了一部分单词，并清掉一种类型的错词
+        List<Word> reviewed = new ArrayList<>();
+        for (int i = 0; i < changed; i++) {
+            Word word = source.getWordById(ids[i * (count / changed)]);
+            word.setReviewCount(word.getReviewCount() + 1);
+            word.setLastReviewTime(1700000000000L + i);
+            reviewed.add(word);
+        }
+        assertEquals(changed, source.updateWords(reviewed));
+        int resolved = source.resolveMistakesByType(TYPES[0]);
+        File delta = folder.newFile("delta.snap");
+        SnapshotInfo deltaExported = source.exportSnapshot(delta, exported.getWatermark());
+        assertEquals(changed, deltaExported.getWordCount());
+        assertEquals(resolved, deltaExported.getMistakeCount());
+        source.close();
+        long databaseBytes = new File(sourceFile + ".mv.db").length();
+        source = null;
+
+        target = open(new File(folder.getRoot(), "target.db").getPath());
+        SnapshotInfo imported = target.importSnapshot(full);
+        assertEquals(count, target.countWords());
+        assertEquals(mistakes.size(), target.countUnresolvedMistakes());
+        SnapshotInfo deltaImported = target.importSnapshot(delta);
+        assertEquals(count, target.countWords());
+        assertEquals(mistakes.size() - resolved, target.countUnresolvedMistakes());
+        Word restored = target.findWordByText(reviewed.get(0).getWord());
+        assertEquals(reviewed.get(0).getReviewCount(), restored.getReviewCount());
+        assertTrue(full.length() < databaseBytes);
+
+        // 再导入一次全量快照：不会插入重复行，变更戳更旧的行也不会覆盖增量带来的修改
+        target.importSnapshot(full);
+        assertEquals(count, target.countWords());
+        assertEquals(mistakes.size() - resolved, target.countUnresolvedMistakes());
+        assertEquals(reviewed.get(0).getReviewCount(),
+                target.findWordByText(reviewed.get(0).getWord()).getReviewCount());
+
+        Benchmarks.report("full snapshot of %d words, %d mistakes: %d KB (database %d KB), export %d ms, import %d ms",
+                count, mistakes.size(), full.length() / 1024, databaseBytes / 1024,
+                exported.getElapsedMs(), imported.getElapsedMs());
+        Benchmarks.report("delta snapshot of %d words, %d mistakes: %d KB, export %d ms, import %d ms",
+                changed, resolved, delta.length() / 1024, deltaExported.getElapsedMs(), deltaImported.getElapsedMs());
+    }
+
+    private static DatabaseHelper open(String file) throws InterruptedException {
+        DatabaseHelper helper = new DatabaseHelper(file, StorageProfile.FAST);
+        BenchmarkDatabases.awaitOnlineMigrations(helper);
+        return helper;
+    }
+}
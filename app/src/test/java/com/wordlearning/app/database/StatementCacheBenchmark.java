@@ -0,0 +1,118 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-010：按 JMH 的方式先预热再分轮测量，对比每次调用都 prepareStatement 和走 StatementCache 的差别。
+ * 查询和更新用的是 getWordById、updateWord 这类按主键访问的短语句，解析和计划占耗时的大头。
+ */
+public class StatementCacheBenchmark {
+    private static final String SELECT_SQL = "SELECT id, word, pronunciation, meaning, example_sentence, " +
+            "created_at, last_review_time, review_count, is_learned FROM words WHERE id = ?";
+    private static final String UPDATE_SQL = "UPDATE words SET review_count = review_count + 1, last_review_time = ? WHERE id = ?";
+    private static final int ROWS = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ConnectionManager connections;
+
+    private interface Op {
+        void run(long id) throws SQLException;
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        connections = new ConnectionManager("jdbc:h2:" + new File(folder.getRoot(), "statements").getPath(), "sa", "", 1);
+        DatabaseHelper.buildMigrator().migrate(connections, true);
+        connections.write(connection -> {
+            Statement stmt = connection.createStatement();
+            stmt.execute("INSERT INTO words (word, word_lower, meaning, created_at) " +
+                    "SELECT 'word' || X, 'word' || X, '释义' || X, X FROM SYSTEM_RANGE(1, " + ROWS + ")");
+            stmt.close();
+            return null;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        connections.close();
+    }
+
+    @Test
+    public void cachedStatementsVersusPreparePerCall() throws Exception {
+        int warmup = Benchmarks.size(2000, 20000);
+        int iterations = Benchmarks.size(5000, 200000);
+
+        double uncachedRead = measure(warmup, iterations, id -> connections.read(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(SELECT_SQL)) {
+                return readWord(stmt, id);
+            }
+        }));
+        long hitsBefore = connections.getStatementCacheHits();
+        double cachedRead = measure(warmup, iterations, id -> connections.read(connection ->
+                readWord(connections.prepare(connection, SELECT_SQL), id)));
+        // 每次调用都命中缓存，只有读连接第一次使用时需要 prepare
+        assertTrue(connections.getStatementCacheHits() - hitsBefore >= warmup + iterations / 3 * 3 - 1);
+
+        double uncachedWrite = measure(warmup, iterations, id -> connections.write(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(UPDATE_SQL)) {
+                return update(stmt, id);
+            }
+        }));
+        double cachedWrite = measure(warmup, iterations, id -> connections.write(connection ->
+                update(connections.prepare(connection, UPDATE_SQL), id)));
+
+        Benchmarks.report("select by id: prepare per call %.2f us/op, cached %.2f us/op", uncachedRead, cachedRead);
+        Benchmarks.report("update by id: prepare per call %.2f us/op, cached %.2f us/op", uncachedWrite, cachedWrite);
+        Benchmarks.report("statement cache: %d hits, %d misses",
+                connections.getStatementCacheHits(), connections.getStatementCacheMisses());
+    }
+
+    // 预热若干次让 JIT 编译完成，再取三轮测量中最快的一轮，返回每次调用的微秒数
+    private static double measure(int warmup, int iterations, Op op) throws SQLException {
+        for (int i = 0; i < warmup; i++) {
+            op.run(1 + i % ROWS);
+        }
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations / 3; i++) {
+                op.run(1 + i % ROWS);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / 1000.0 / (iterations / 3));
+        }
+        return best;
+    }
+
+    private static Integer readWord(PreparedStatement stmt, long id) throws SQLException {
+        stmt.setLong(1, id);
+        ResultSet rs = stmt.executeQuery();
+        assertTrue(rs.next());
+        assertEquals(id, rs.getLong(1));
+        rs.getString(4);
+        rs.close();
+        return 1;
+    }
+
+    private static Integer update(PreparedStatement stmt, long id) throws SQLException {
+        stmt.setLong(1, System.currentTimeMillis());
+        stmt.setLong(2, id);
+        return stmt.executeUpdate();
+    }
+}
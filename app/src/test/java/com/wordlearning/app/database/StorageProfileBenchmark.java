@@ -0,0 +1,89 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.MistakeWord;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-017：每种存储配置下逐条提交的写入吞吐、反复记录/解决错词之后的文件大小，
+ * 以及空闲关闭时 SHUTDOWN COMPACT 回收的空间。
+ */
+public class StorageProfileBenchmark {
+    private static final String[] TYPES = {"meaning", "spelling", "pronunciation"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void throughputAndFileSizePerProfile() throws Exception {
+        int count = Benchmarks.size(500, 5000);
+        int churnRounds = Benchmarks.size(2, 5);
+        for (StorageProfile profile : StorageProfile.values()) {
+            String file = new File(folder.getRoot(), profile.name().toLowerCase(Locale.ROOT) + ".db").getPath();
+            db = open(file, profile);
+
+            List<Word> words = Benchmarks.words(count, 17);
+            long start = System.nanoTime();
+            for (Word word : words) {
+                assertTrue(db.insertWord(word) > 0);
+            }
+            long insertMs = Benchmarks.elapsedMs(start);
+
+            // 错题本的典型写法：每轮给每个单词记一次错，再全部清空
+            List<Word> stored = db.getAllWords();
+            start = System.nanoTime();
+            for (int round = 0; round < churnRounds; round++) {
+                for (Word word : stored) {
+                    db.recordMistake(new MistakeWord(word.getId(), word.getWord(), TYPES[round % TYPES.length]));
+                }
+                db.resolveAllMistakes();
+            }
+            long churnMs = Benchmarks.elapsedMs(start);
+            assertEquals(0, db.countUnresolvedMistakes());
+            db.close();
+            long sizeAfterChurn = new File(file + ".mv.db").length();
+
+            db = open(file, profile);
+            db.requestCompaction();
+            long deadline = System.currentTimeMillis() + 60000;
+            while (db.getCompactionCount() == 0) {
+                assertTrue("compaction did not run", System.currentTimeMillis() < deadline);
+                Thread.sleep(20);
+            }
+            long sizeAfterCompact = new File(file + ".mv.db").length();
+            db = null;
+
+            int writes = count + churnRounds * (count + 1);
+            Benchmarks.report("%s: insert %.0f rows/s, mistake churn %.0f writes/s, file %d KB, after compact %d KB",
+                    profile, count * 1000.0 / Math.max(1, insertMs), writes * 1000.0 / Math.max(1, churnMs),
+                    sizeAfterChurn / 1024, sizeAfterCompact / 1024);
+        }
+    }
+
+    private static DatabaseHelper open(String file, StorageProfile profile) throws InterruptedException {
+        DatabaseHelper helper = new DatabaseHelper(file, profile);
+        BenchmarkDatabases.awaitOnlineMigrations(helper);
+        return helper;
+    }
+}
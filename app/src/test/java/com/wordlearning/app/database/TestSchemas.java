@@ -0,0 +1,33 @@
+package com.wordlearning.app.database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 测试用的旧版表结构，与 v1 迁移之前应用直接建表时的结构一致。
+ */
+final class TestSchemas {
+    private TestSchemas() {
+    }
+
+    static void createV1(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE words (" +
+                "id IDENTITY PRIMARY KEY, " +
+                "word VARCHAR(255) NOT NULL, " +
+                "pronunciation TEXT, " +
+                "meaning TEXT, " +
+                "example_sentence TEXT, " +
+                "created_at BIGINT, " +
+                "last_review_time BIGINT, " +
+                "review_count INT DEFAULT 0, " +
+                "is_learned BOOLEAN DEFAULT FALSE)");
+        stmt.execute("CREATE TABLE mistake_words (" +
+                "id IDENTITY PRIMARY KEY, " +
+                "word_id BIGINT, " +
+                "word VARCHAR(255) NOT NULL, " +
+                "mistake_type VARCHAR(50), " +
+                "added_at BIGINT, " +
+                "mistake_count INT DEFAULT 1, " +
+                "is_resolved BOOLEAN DEFAULT FALSE)");
+    }
+}
@@ -0,0 +1,88 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-018：模拟复习流程，统计 WordCache 的命中率。
+ * 每天抽一批单词，每个单词先按文本查一次（getWordByString），再按 id 取一次并写回复习结果；
+ * 答错的单词当天再出现，一天内每个单词平均被访问好几次。
+ */
+public class WordCacheBenchmark {
+    private static final int DAILY_WORDS = 30;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void hitRateOverReviewSessions() throws Exception {
+        int count = Benchmarks.size(2000, 20000);
+        int days = Benchmarks.size(5, 30);
+        db = new DatabaseHelper(new File(folder.getRoot(), "word_learning.db").getPath(), StorageProfile.FAST);
+        long[] ids = db.insertWords(Benchmarks.words(count, 18));
+        BenchmarkDatabases.awaitOnlineMigrations(db);
+
+        // 对照：从未读过的单词每次都要查库
+        int cold = Math.min(count, 500);
+        long start = System.nanoTime();
+        for (int i = 0; i < cold; i++) {
+            assertNotNull(db.getWordById(ids[count - 1 - i]));
+        }
+        double missMs = Benchmarks.elapsedMs(start) / (double) cold;
+
+        Random random = new Random(18);
+        long hits = db.getWordCacheHits();
+        long misses = db.getWordCacheMisses();
+        int lookups = 0;
+        start = System.nanoTime();
+        for (int day = 0; day < days; day++) {
+            List<Word> queue = new ArrayList<>(db.getRandomWords(DAILY_WORDS));
+            assertEquals(DAILY_WORDS, queue.size());
+            while (!queue.isEmpty()) {
+                Word next = queue.remove(0);
+                Word byText = db.findWordByText(next.getWord());
+                Word word = db.getWordById(byText.getId());
+                lookups += 2;
+                word.setReviewCount(word.getReviewCount() + 1);
+                word.setLastReviewTime(1700000000000L + day * 86400000L);
+                db.updateWord(word);
+                // 大约三分之一答错，排到队尾再复习一次
+                if (word.getReviewCount() % 3 != 0 && random.nextInt(3) == 0) {
+                    queue.add(word);
+                }
+            }
+        }
+        long sessionMs = Benchmarks.elapsedMs(start);
+        hits = db.getWordCacheHits() - hits;
+        misses = db.getWordCacheMisses() - misses;
+        assertTrue(hits > misses);
+
+        Benchmarks.report("review session over %d words, %d days: %d lookups, %d hits, %d misses (%.1f%% hit rate), " +
+                        "%d evictions, %d ms; uncached lookup %.3f ms",
+                count, days, lookups, hits, misses, 100.0 * hits / Math.max(1, hits + misses),
+                db.getWordCacheEvictions(), sessionMs, missMs);
+    }
+}
@@ -0,0 +1,109 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-005：WordCursor 分页遍历时占用的堆内存只和页大小有关，getAllWords 则要把整张表放进内存。
+ * 比较的是两者各自占住的对象：持有结果时的已用堆减去释放后的已用堆，两次读数前都要确认 GC 确实跑过。
+ * 单个游标只占一页，比 H2 缓存和后台写盘带来的波动还小，所以同时停住一组游标，每个都刚读进一整页，再按个数平均。
+ * 同一页的字符串和 H2 行缓存共用，游标的读数是它在缓存之外额外占住的部分。
+ */
+public class WordCursorHeapBenchmark {
+    private static final int PAGE_SIZE = WordCursor.DEFAULT_PAGE_SIZE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DatabaseHelper db;
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void cursorHeapIsBoundedByPageSize() throws Exception {
+        int count = Benchmarks.size(20000, 200000);
+        db = new DatabaseHelper(new File(folder.getRoot(), "word_learning.db").getPath(), StorageProfile.FAST);
+        db.insertWords(Benchmarks.words(count, 5));
+        BenchmarkDatabases.awaitOnlineMigrations(db);
+        assertEquals(count, iterate());
+        long start = System.nanoTime();
+        assertEquals(count, iterate());
+        long cursorMs = Benchmarks.elapsedMs(start);
+
+        // 每个游标读进第一页后停住，各自持有一份独立的页对象
+        int cursorCount = Benchmarks.size(50, 500);
+        List<WordCursor> cursors = new ArrayList<>();
+        for (int i = 0; i < cursorCount; i++) {
+            WordCursor cursor = db.openWordCursor(PAGE_SIZE);
+            cursor.next();
+            cursors.add(cursor);
+        }
+        long cursorRetained = usedHeap();
+        assertEquals(cursorCount, cursors.size());
+        cursors = null;
+        cursorRetained = (cursorRetained - usedHeap()) / cursorCount;
+
+        start = System.nanoTime();
+        List<Word> all = db.getAllWords();
+        long allMs = Benchmarks.elapsedMs(start);
+        assertEquals(count, all.size());
+        long allRetained = usedHeap();
+        assertEquals(count, all.size());
+        all = null;
+        allRetained -= usedHeap();
+
+        if (Benchmarks.full()) {
+            assertTrue("cursor retains " + cursorRetained + " bytes", cursorRetained > 0);
+            assertTrue("cursor " + cursorRetained + " bytes, getAllWords " + allRetained + " bytes",
+                    cursorRetained * 10 < allRetained);
+        }
+        Benchmarks.report("iterate %d words: getAllWords retains %.1f MB in %d ms, cursor(page %d) retains %.1f KB, " +
+                        "full iteration %d ms", count, allRetained / (1024.0 * 1024.0), allMs, PAGE_SIZE,
+                cursorRetained / 1024.0, cursorMs);
+    }
+
+    private int iterate() {
+        int seen = 0;
+        for (Word ignored : db.openWordCursor(PAGE_SIZE)) {
+            seen++;
+        }
+        return seen;
+    }
+
+    // System.gc 只是建议，用弱引用确认每一轮都真的回收过，再等已用堆连续两次读数接近时才返回
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long previous = Long.MAX_VALUE;
+        for (int round = 0; round < 20; round++) {
+            WeakReference<Object> sentinel = new WeakReference<>(new Object());
+            while (sentinel.get() != null) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            if (Math.abs(previous - used) < 64 * 1024) {
+                return used;
+            }
+            previous = used;
+        }
+        return previous;
+    }
+}
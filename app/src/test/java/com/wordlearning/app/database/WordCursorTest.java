@@ -0,0 +1,53 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.model.Word;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WordCursorTest {
+
+    // 第二页第一次读取失败：遍历要抛出异常而不是提前结束，重试后从第二页接着读完
+    @Test
+    public void pageErrorIsThrownAndCursorCanResume() {
+        List<Word> words = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Word word = new Word("w" + i);
+            word.setId(10 - i);
+            word.setCreatedAt(100 - i);
+            words.add(word);
+        }
+        int[] failures = {1};
+        WordCursor cursor = new WordCursor((after, limit) -> {
+            int from = after == null ? 0 : words.indexOf(after) + 1;
+            if (from > 0 && failures[0]-- > 0) {
+                throw new SQLException("disk I/O error");
+            }
+            return new ArrayList<>(words.subList(from, Math.min(words.size(), from + limit)));
+        }, 2);
+
+        List<String> seen = new ArrayList<>();
+        seen.add(cursor.next().getWord());
+        seen.add(cursor.next().getWord());
+        try {
+            cursor.hasNext();
+            fail("expected ReadException");
+        } catch (WordCursor.ReadException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+        while (cursor.hasNext()) {
+            seen.add(cursor.next().getWord());
+        }
+        assertEquals(5, seen.size());
+        assertEquals("w4", seen.get(4));
+        assertFalse(cursor.hasNext());
+    }
+}
@@ -0,0 +1,137 @@
+package com.wordlearning.app.database;
+
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * user-011：每读 1 万行分配的字节数和耗时。对比原来的 SELECT * 加按列名取值，
+ * 和列出列名、按列序号映射的完整行。
+ * 嵌入式 H2 在调用线程上执行查询，所以当前线程的分配量包含了驱动读行的开销。
+ */
+public class WordProjectionBenchmark {
+    private static final int ROWS = 10000;
+    private static final String FULL_COLUMNS = "id, word, pronunciation, meaning, example_sentence, " +
+            "created_at, last_review_time, review_count, is_learned";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ConnectionManager connections;
+
+    private interface Mapper {
+        List<Word> read(ResultSet rs) throws SQLException;
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        connections = new ConnectionManager("jdbc:h2:" + new File(folder.getRoot(), "projection").getPath(), "sa", "", 1);
+        DatabaseHelper.buildMigrator().migrate(connections, true);
+        List<Word> words = Benchmarks.words(ROWS, 11);
+        connections.transaction(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO words (word, word_lower, pronunciation, " +
+                    "meaning, example_sentence, created_at, review_count, is_learned) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (Word word : words) {
+                    stmt.setString(1, word.getWord());
+                    stmt.setString(2, word.getWord());
+                    stmt.setString(3, word.getPronunciation());
+                    stmt.setString(4, word.getMeaning());
+                    stmt.setString(5, word.getExampleSentence());
+                    stmt.setLong(6, word.getCreatedAt());
+                    stmt.setInt(7, 0);
+                    stmt.setBoolean(8, word.isLearned());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        connections.close();
+    }
+
+    @Test
+    public void allocationPerTenThousandRows() throws Exception {
+        int rounds = Benchmarks.size(5, 50);
+        long[] byName = measure("SELECT * FROM words ORDER BY created_at DESC", rounds,
+                WordProjectionBenchmark::readByName);
+        long[] full = measure("SELECT " + FULL_COLUMNS + " FROM words ORDER BY created_at DESC", rounds,
+                WordRowMapper::readAll);
+
+        report("SELECT * by column name", byName);
+        report("full row by ordinal", full);
+    }
+
+    // 返回 {每轮分配字节数的最小值, 每轮耗时的最小值（微秒）}
+    private long[] measure(String sql, int rounds, Mapper mapper) throws SQLException {
+        long bestBytes = Long.MAX_VALUE;
+        long bestMicros = Long.MAX_VALUE;
+        // 第一轮用于预热，不计入结果
+        for (int round = 0; round <= rounds; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            List<Word> words = connections.read(connection -> {
+                ResultSet rs = connections.prepare(connection, sql).executeQuery();
+                List<Word> result = mapper.read(rs);
+                rs.close();
+                return result;
+            });
+            long micros = (System.nanoTime() - start) / 1000;
+            bytes = allocatedBytes() - bytes;
+            assertEquals(ROWS, words.size());
+            assertNotNull(words.get(0).getMeaning());
+            if (round > 0) {
+                bestBytes = Math.min(bestBytes, bytes);
+                bestMicros = Math.min(bestMicros, micros);
+            }
+        }
+        return new long[]{bestBytes, bestMicros};
+    }
+
+    private static void report(String name, long[] result) {
+        Benchmarks.report("%s: %.2f MB allocated, %.1f ms per %d rows",
+                name, result[0] / (1024.0 * 1024.0), result[1] / 1000.0, ROWS);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    // 改动前 getAllWords 等方法各自复制的映射代码
+    private static List<Word> readByName(ResultSet rs) throws SQLException {
+        List<Word> words = new ArrayList<>();
+        while (rs.next()) {
+            Word word = new Word();
+            word.setId(rs.getLong("id"));
+            word.setWord(rs.getString("word"));
+            word.setPronunciation(rs.getString("pronunciation"));
+            word.setMeaning(rs.getString("meaning"));
+            word.setExampleSentence(rs.getString("example_sentence"));
+            word.setCreatedAt(rs.getLong("created_at"));
+            word.setLastReviewTime(rs.getLong("last_review_time"));
+            word.setReviewCount(rs.getInt("review_count"));
+            word.setLearned(rs.getBoolean("is_learned"));
+            words.add(word);
+        }
+        return words;
+    }
+}
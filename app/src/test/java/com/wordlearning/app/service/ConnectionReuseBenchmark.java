@@ -0,0 +1,135 @@
+package com.wordlearning.app.service;
+
+import com.wordlearning.app.Benchmarks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-021：对本地 MockWebServer 测量每次请求拿到连接的耗时。
+ * 对照组按改动前的做法每次新建 OkHttpClient；共享客户端先 prewarm 再发请求。
+ * 本地是明文 HTTP，没有 DNS 和 TLS 握手，实际访问接口时新建连接的代价比这里大得多。
+ */
+public class ConnectionReuseBenchmark {
+    private MockWebServer server;
+    private HttpUrl url;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // prewarm 发的是 HEAD，响应不能带正文，否则会打乱这条连接上后续的响应
+                if ("HEAD".equals(request.getMethod())) {
+                    return new MockResponse();
+                }
+                return new MockResponse().setBody("{\"choices\":[{\"message\":{\"content\":\"正确\"}}]}");
+            }
+        });
+        server.start();
+        url = server.url("/api/paas/v4/chat/completions");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    // 统计从发起请求到拿到连接的耗时，以及新建连接的次数
+    private static class AcquireListener {
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicInteger connects = new AtomicInteger();
+
+        EventListener.Factory factory() {
+            return call -> new EventListener() {
+                private long start;
+
+                @Override
+                public void callStart(Call call) {
+                    start = System.nanoTime();
+                }
+
+                @Override
+                public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+                    connects.incrementAndGet();
+                }
+
+                @Override
+                public void connectionAcquired(Call call, Connection connection) {
+                    totalNanos.addAndGet(System.nanoTime() - start);
+                }
+            };
+        }
+    }
+
+    @Test
+    public void sharedClientReusesConnections() throws Exception {
+        int calls = Benchmarks.size(20, 500);
+
+        AcquireListener fresh = new AcquireListener();
+        for (int i = 0; i < calls; i++) {
+            OkHttpClient client = new OkHttpClient.Builder()
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .eventListenerFactory(fresh.factory())
+                    .build();
+            call(client);
+            client.connectionPool().evictAll();
+            client.dispatcher().executorService().shutdown();
+        }
+        assertEquals(calls, fresh.connects.get());
+
+        // 共享连接池里已有连接时 prewarm 不会再连，先清空，保证连到这次的 MockWebServer
+        OkHttpClient shared = ZhipuAIService.getSharedClient();
+        shared.connectionPool().evictAll();
+        ZhipuAIService.prewarm(url.toString());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (shared.connectionPool().idleConnectionCount() == 0) {
+            assertTrue("prewarm did not connect", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        // newBuilder 和共享客户端用同一个连接池，只是换了事件监听
+        AcquireListener reused = new AcquireListener();
+        OkHttpClient measured = shared.newBuilder().eventListenerFactory(reused.factory()).build();
+        for (int i = 0; i < calls; i++) {
+            call(measured);
+        }
+        assertEquals(0, reused.connects.get());
+
+        Benchmarks.report("connection acquire over %d calls: new client per call %.3f ms (%d connects), " +
+                        "shared prewarmed client %.3f ms (%d connects)",
+                calls, fresh.totalNanos.get() / 1e6 / calls, fresh.connects.get(),
+                reused.totalNanos.get() / 1e6 / calls, reused.connects.get());
+    }
+
+    private void call(OkHttpClient client) throws IOException {
+        Request request = new Request.Builder().url(url).get().build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(200, response.code());
+            response.body().string();
+        }
+    }
+}
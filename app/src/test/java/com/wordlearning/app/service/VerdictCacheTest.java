@@ -0,0 +1,24 @@
+package com.wordlearning.app.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class VerdictCacheTest {
+
+    @Test
+    public void sentenceKeysKeepCaseAndPunctuation() {
+        String lower = VerdictCache.key(ZhipuAIService.CHECK_SENTENCE, "like", "i like it");
+        assertNotEquals(lower, VerdictCache.key(ZhipuAIService.CHECK_SENTENCE, "like", "I like it"));
+        assertNotEquals(lower, VerdictCache.key(ZhipuAIService.CHECK_SENTENCE, "like", "i like it."));
+        // 多余的空白不影响造句的对错
+        assertEquals(lower, VerdictCache.key(ZhipuAIService.CHECK_SENTENCE, "like", "  i  like\tit "));
+    }
+
+    @Test
+    public void meaningKeysIgnoreCaseAndTrailingPunctuation() {
+        assertEquals(VerdictCache.key("meaning", "Apple", "苹果"), VerdictCache.key("meaning", "apple", " 苹果。"));
+        assertEquals(VerdictCache.key("meaning", "apple", "a fruit"), VerdictCache.key("meaning", "apple", "A Fruit!"));
+    }
+}
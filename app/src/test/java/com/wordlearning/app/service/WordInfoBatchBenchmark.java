@@ -0,0 +1,122 @@
+package com.wordlearning.app.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.wordlearning.app.Benchmarks;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * user-024：补全一批导入单词的总耗时，对比改动前每个单词一个 GetWordInfoTask、依次请求。
+ * 模型用固定延迟模拟：每次请求有一段往返和提示词开销，每个单词再加一段生成时间；
+ * 批量请求里约 2% 的单词会被漏掉，走单词重试。
+ */
+public class WordInfoBatchBenchmark {
+    private static final String WORD_LIST = "单词列表：";
+    private static final long ROUND_TRIP_MS = 30;
+    private static final long PER_WORD_MS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 120000)
+    public void batchedVersusPerWord() throws Exception {
+        int count = Benchmarks.size(40, 1000);
+        List<String> words = new ArrayList<>();
+        for (Word word : Benchmarks.words(count, 24)) {
+            words.add(word.getWord());
+        }
+
+        // AsyncTask 默认串行执行，原来的逐词补全一次只有一个请求在途
+        long start = System.nanoTime();
+        for (String word : words) {
+            assertEquals(1, answer(Collections.singletonList(word), false).size());
+        }
+        long perWordMs = Benchmarks.elapsedMs(start);
+        int perWordRequests = requests.getAndSet(0);
+
+        WordInfoCache cache = new WordInfoCache(folder.newFolder("cache"), 100, TimeUnit.DAYS.toMillis(1), 1 << 20);
+        WordInfoBatcher batcher = new WordInfoBatcher(this::complete, cache);
+        List<Word> enriched = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        start = System.nanoTime();
+        executor.execute(() -> batcher.start(words, 4, executor, new WordInfoBatcher.Listener() {
+            @Override
+            public void onProgress(int completed, int total) {
+            }
+
+            @Override
+            public void onComplete(List<Word> result, List<String> failedWords) {
+                enriched.addAll(result);
+                failed.addAll(failedWords);
+                done.countDown();
+            }
+        }));
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long batchedMs = Benchmarks.elapsedMs(start);
+        assertEquals(count, enriched.size());
+        assertTrue(failed.isEmpty());
+        assertTrue(batchedMs < perWordMs);
+
+        Benchmarks.report("enrich %d words: per word %d ms (%d requests), batched %d ms (%d requests, batch size now %d)",
+                count, perWordMs, perWordRequests, batchedMs, requests.get(), batcher.getBatchSize());
+    }
+
+    private ZhipuAIService.Completion complete(String prompt) throws IOException {
+        String list = prompt.substring(prompt.indexOf(WORD_LIST) + WORD_LIST.length());
+        List<String> words = Arrays.asList(gson.fromJson(list, String[].class));
+        String content = answer(words, words.size() > 1).toString();
+        return new ZhipuAIService.Completion(content, prompt.length() + content.length());
+    }
+
+    private JsonArray answer(List<String> words, boolean dropSome) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(ROUND_TRIP_MS + PER_WORD_MS * words.size());
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        JsonArray array = new JsonArray();
+        for (String word : words) {
+            if (dropSome && Math.floorMod(word.hashCode(), 50) == 0) {
+                continue;
+            }
+            JsonObject item = new JsonObject();
+            item.addProperty("word", word);
+            item.addProperty("pronunciation", "/" + word + "/");
+            item.addProperty("meaning", "意思");
+            item.addProperty("example_sentence", "Use " + word + ".");
+            array.add(item);
+        }
+        return array;
+    }
+}
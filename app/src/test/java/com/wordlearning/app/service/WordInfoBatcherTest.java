@@ -0,0 +1,132 @@
+package com.wordlearning.app.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WordInfoBatcherTest {
+    private static final String WORD_LIST = "单词列表：";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    // 每次请求里的单词，按请求顺序记录
+    private final List<List<String>> requests = Collections.synchronizedList(new ArrayList<List<String>>());
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 10000)
+    public void missingWordsAreRetriedAloneAfterTheBatch() throws Exception {
+        // 批量请求总是漏掉 "flaky"，单独请求时才返回
+        Result result = run(Arrays.asList("apple", "flaky", "banana", "cherry"), 1, words -> {
+            List<String> answered = new ArrayList<>(words);
+            if (words.size() > 1) {
+                answered.remove("flaky");
+            }
+            return answered;
+        });
+
+        assertEquals(4, result.words.size());
+        assertTrue(result.failed.isEmpty());
+        assertEquals(Arrays.asList("apple", "flaky", "banana", "cherry"), result.words());
+        assertEquals(Arrays.asList("apple", "flaky", "banana", "cherry"), requests.get(0));
+        assertEquals(Collections.singletonList("flaky"), requests.get(1));
+        assertEquals(2, requests.size());
+    }
+
+    @Test(timeout = 10000)
+    public void wordsThatNeverComeBackFailAfterSingleWordRetries() throws Exception {
+        Result result = run(Arrays.asList("apple", "never", "banana"), 1, words -> {
+            List<String> answered = new ArrayList<>(words);
+            answered.remove("never");
+            return answered;
+        });
+
+        assertEquals(Arrays.asList("apple", "banana"), result.words());
+        assertEquals(Collections.singletonList("never"), result.failed);
+        // 第一批之外的每次重试都只带这一个单词
+        assertEquals(WordInfoBatcher.MAX_ATTEMPTS, requests.size());
+        for (List<String> retry : requests.subList(1, requests.size())) {
+            assertEquals(Collections.singletonList("never"), retry);
+        }
+    }
+
+    private interface Model {
+        List<String> answer(List<String> words);
+    }
+
+    private static class Result {
+        List<Word> words;
+        List<String> failed;
+
+        List<String> words() {
+            List<String> text = new ArrayList<>();
+            for (Word word : words) {
+                text.add(word.getWord());
+            }
+            return text;
+        }
+    }
+
+    private Result run(List<String> words, int workers, Model model) throws Exception {
+        WordInfoCache cache = new WordInfoCache(folder.newFolder("cache"), 100, TimeUnit.DAYS.toMillis(1), 1 << 20);
+        WordInfoBatcher batcher = new WordInfoBatcher(prompt -> complete(prompt, model), cache);
+        Result result = new Result();
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(() -> batcher.start(words, workers, executor, new WordInfoBatcher.Listener() {
+            @Override
+            public void onProgress(int completed, int total) {
+            }
+
+            @Override
+            public void onComplete(List<Word> enriched, List<String> failedWords) {
+                result.words = enriched;
+                result.failed = failedWords;
+                done.countDown();
+            }
+        }));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private ZhipuAIService.Completion complete(String prompt, Model model) throws IOException {
+        String list = prompt.substring(prompt.indexOf(WORD_LIST) + WORD_LIST.length());
+        List<String> words = Arrays.asList(gson.fromJson(list, String[].class));
+        requests.add(words);
+        JsonArray array = new JsonArray();
+        for (String word : model.answer(words)) {
+            JsonObject item = new JsonObject();
+            item.addProperty("word", word);
+            item.addProperty("pronunciation", "/" + word + "/");
+            item.addProperty("meaning", "意思");
+            item.addProperty("example_sentence", "Use " + word + ".");
+            array.add(item);
+        }
+        String content = array.toString();
+        return new ZhipuAIService.Completion(content, prompt.length() + content.length());
+    }
+}
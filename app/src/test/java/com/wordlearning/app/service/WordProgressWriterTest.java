@@ -0,0 +1,173 @@
+package com.wordlearning.app.service;
+
+import com.wordlearning.app.database.InMemoryRepository;
+import com.wordlearning.app.model.Word;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class WordProgressWriterTest {
+    // 前 failures 次批量写入按出错处理，返回 -1 且不写入
+    private static class FlakyRepository extends InMemoryRepository {
+        int failures;
+
+        @Override
+        public synchronized int updateWords(List<Word> words) {
+            if (failures > 0) {
+                failures--;
+                return -1;
+            }
+            return super.updateWords(words);
+        }
+    }
+
+    private FlakyRepository repository;
+    private WordProgressWriter writer;
+    private long appleId;
+    private long bananaId;
+
+    @Before
+    public void setUp() {
+        repository = new FlakyRepository();
+        appleId = repository.insertWord(new Word("apple"));
+        bananaId = repository.insertWord(new Word("banana"));
+        // 定时器不会在测试期间触发，只由测试调用 flush
+        writer = new WordProgressWriter(repository, 60000, 100);
+    }
+
+    @After
+    public void tearDown() {
+        repository.failures = 0;
+        writer.shutdown();
+    }
+
+    @Test
+    public void failedFlushKeepsWordsQueuedAndUncounted() {
+        repository.failures = 1;
+        writer.enqueue(reviewed(appleId, 1));
+        writer.enqueue(reviewed(bananaId, 1));
+
+        writer.flush();
+        assertEquals(2, writer.getQueueDepth());
+        assertEquals(0, writer.getFlushCount());
+        assertEquals(0, writer.getFlushedWords());
+        assertEquals(1, writer.getFailedFlushCount());
+        assertEquals(0, repository.getWordById(appleId).getReviewCount());
+
+        writer.flush();
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1, writer.getFlushCount());
+        assertEquals(2, writer.getFlushedWords());
+        assertEquals(1, repository.getWordById(appleId).getReviewCount());
+        assertEquals(1, repository.getWordById(bananaId).getReviewCount());
+    }
+
+    @Test
+    public void newerUpdateWinsOverRequeuedOne() {
+        repository.failures = 1;
+        writer.enqueue(reviewed(appleId, 1));
+        writer.flush();
+
+        // 重试之前同一个单词又复习了一次
+        writer.enqueue(reviewed(appleId, 2));
+        assertEquals(1, writer.getQueueDepth());
+        writer.flush();
+        assertEquals(2, repository.getWordById(appleId).getReviewCount());
+    }
+
+    @Test
+    public void retriedFailedBatchDoesNotOverwriteNewerEntry() {
+        repository.failures = 2;
+        writer.enqueue(reviewed(appleId, 1));
+        writer.enqueue(reviewed(bananaId, 1));
+        writer.flush();
+        writer.enqueue(reviewed(appleId, 3));
+        writer.flush();
+        assertEquals(2, writer.getQueueDepth());
+
+        writer.flush();
+        assertEquals(3, repository.getWordById(appleId).getReviewCount());
+        assertEquals(1, repository.getWordById(bananaId).getReviewCount());
+        assertEquals(2, writer.getFlushedWords());
+    }
+
+    @Test
+    public void batchIsDroppedAfterRepeatedFailures() {
+        repository.failures = WordProgressWriter.MAX_FLUSH_ATTEMPTS;
+        writer.enqueue(reviewed(appleId, 1));
+        for (int i = 0; i < WordProgressWriter.MAX_FLUSH_ATTEMPTS; i++) {
+            writer.flush();
+        }
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1, writer.getDroppedWords());
+        assertEquals(0, writer.getFlushedWords());
+    }
+
+    @Test
+    public void retriesAreCountedPerBatch() {
+        repository.failures = WordProgressWriter.MAX_FLUSH_ATTEMPTS - 1;
+        writer.enqueue(reviewed(appleId, 1));
+        for (int i = 0; i < WordProgressWriter.MAX_FLUSH_ATTEMPTS - 1; i++) {
+            writer.flush();
+        }
+        // 新加入的单词从头计数，下一次失败只丢弃已经失败够次数的那一批
+        writer.enqueue(reviewed(bananaId, 1));
+        repository.failures = 1;
+        writer.flush();
+        assertEquals(1, writer.getQueueDepth());
+        assertEquals(1, writer.getDroppedWords());
+
+        writer.flush();
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1, repository.getWordById(bananaId).getReviewCount());
+    }
+
+    @Test
+    public void deletedWordIsNotRetried() {
+        writer.enqueue(reviewed(appleId + bananaId + 1, 1));
+        writer.flush();
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1, writer.getFlushCount());
+        assertEquals(0, writer.getFailedFlushCount());
+        assertEquals(0, writer.getDroppedWords());
+    }
+
+    @Test
+    public void shutdownRetriesThenWritesWordsOneByOne() {
+        writer.enqueue(reviewed(appleId, 1));
+        writer.enqueue(reviewed(bananaId, 1));
+        // 关闭时的整批重试全部失败，之后逐个写入成功
+        repository.failures = WordProgressWriter.MAX_FLUSH_ATTEMPTS;
+        writer.shutdown();
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(0, writer.getDroppedWords());
+        assertEquals(2, writer.getFlushedWords());
+        assertEquals(1, repository.getWordById(appleId).getReviewCount());
+        assertEquals(1, repository.getWordById(bananaId).getReviewCount());
+    }
+
+    @Test
+    public void shutdownDropsOnlyWordsThatCannotBeWritten() {
+        writer.enqueue(reviewed(appleId, 1));
+        writer.enqueue(reviewed(bananaId, 1));
+        repository.failures = WordProgressWriter.MAX_FLUSH_ATTEMPTS + 1;
+        writer.shutdown();
+        assertEquals(1, writer.getDroppedWords());
+        assertEquals(1, writer.getFlushedWords());
+        assertEquals(0, repository.getWordById(appleId).getReviewCount());
+        assertEquals(1, repository.getWordById(bananaId).getReviewCount());
+    }
+
+    private static Word reviewed(long id, int reviewCount) {
+        Word word = new Word();
+        word.setId(id);
+        word.setReviewCount(reviewCount);
+        word.setLastReviewTime(reviewCount * 1000L);
+        return word;
+    }
+}